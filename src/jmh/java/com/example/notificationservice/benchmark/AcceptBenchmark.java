@@ -0,0 +1,106 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.NotificationServiceApplication;
+import com.example.notificationservice.api.dto.NotificationRequest;
+import com.example.notificationservice.api.dto.RecipientDto;
+import com.example.notificationservice.channel.ChannelRegistry;
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.Notification;
+import com.example.notificationservice.service.InProcessNotificationSender;
+import com.example.notificationservice.service.NotificationOrchestrator;
+import com.example.notificationservice.service.dispatch.PriorityDispatcher;
+import com.example.notificationservice.service.retry.RetryScheduler;
+import com.example.notificationservice.service.scheduling.ScheduledDeliveryEngine;
+import com.example.notificationservice.service.status.StatusWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NotificationOrchestrator#accept} end to end against the in-memory H2 database (render,
+ * batched insert, commit) for 1, 100 and 10k recipients. Delivery is stubbed out so only the accept
+ * path is measured, and the table is emptied between iterations so it does not grow across the run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AcceptBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int recipients;
+
+    private ConfigurableApplicationContext context;
+    private NotificationOrchestrator orchestrator;
+    private JdbcTemplate jdbcTemplate;
+    private NotificationRequest request;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(NotificationServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "notification.queue.enabled=false",
+                "logging.level.root=WARN",
+                "spring.jpa.show-sql=false")
+            .initializers(ctx -> ((GenericApplicationContext) ctx)
+                .registerBean(DiscardingSender.class, bd -> bd.setPrimary(true)))
+            .run();
+        orchestrator = context.getBean(NotificationOrchestrator.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<RecipientDto> list = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            RecipientDto recipient = new RecipientDto();
+            recipient.setChannel(ChannelType.SMS);
+            recipient.setAddress("+1555" + String.format("%07d", i));
+            list.add(recipient);
+        }
+        request = new NotificationRequest();
+        request.setTemplateId("welcome-sms");
+        request.setChannels(List.of(ChannelType.SMS));
+        request.setRecipients(list);
+        request.setVariables(Map.of("userName", "Jane", "code", "123456"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.update("delete from notifications");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Notification> accept() {
+        return orchestrator.accept(request);
+    }
+
+    /** Drops the post-commit hand-off so no provider calls or status updates run during the benchmark. */
+    public static class DiscardingSender extends InProcessNotificationSender {
+
+        public DiscardingSender(ChannelRegistry channelRegistry, PriorityDispatcher dispatcher,
+                                RetryScheduler retryScheduler, @Lazy ScheduledDeliveryEngine scheduledDeliveryEngine,
+                                StatusWriteBehind statusWriter, MeterRegistry meterRegistry) {
+            super(channelRegistry, dispatcher, retryScheduler, scheduledDeliveryEngine, statusWriter, meterRegistry);
+        }
+
+        @Override
+        public void sendAsync(Notification n) {
+        }
+    }
+}
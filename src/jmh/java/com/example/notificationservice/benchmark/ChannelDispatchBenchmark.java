@@ -0,0 +1,88 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.channel.ChannelDecorator;
+import com.example.notificationservice.channel.ChannelRegistry;
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.channel.metrics.ChannelMetrics;
+import com.example.notificationservice.channel.ratelimit.ChannelRateLimiters;
+import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup and send through {@link ChannelRegistry} against stub channels that complete immediately,
+ * so the score is the registry and decorator overhead alone: bare channels, with metrics, and with
+ * metrics plus a token bucket configured far above the offered load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChannelDispatchBenchmark {
+
+    @Param({"none", "metrics", "metrics+ratelimit"})
+    public String decorators;
+
+    private ChannelRegistry registry;
+    private NotificationPayload payload;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        List<ChannelDecorator> chain = new ArrayList<>();
+        if (decorators.contains("metrics")) {
+            chain.add(new ChannelMetrics(meterRegistry));
+        }
+        if (decorators.contains("ratelimit")) {
+            StandardEnvironment environment = new StandardEnvironment();
+            environment.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "notification.channels.sms.rate-limit.permits-per-second", "1000000000",
+                "notification.channels.sms.rate-limit.burst", "1000000000")));
+            chain.add(new ChannelRateLimiters(environment, meterRegistry));
+        }
+        List<NotificationChannel> channels = new ArrayList<>();
+        for (ChannelType type : ChannelType.values()) {
+            channels.add(new StubChannel(type));
+        }
+        registry = new ChannelRegistry(channels, chain);
+        payload = new NotificationPayload(UUID.randomUUID(), ChannelType.SMS, "+15550100", null, "Your code is 1234", 0);
+    }
+
+    @Benchmark
+    public SendResult dispatch() {
+        return registry.getChannel(payload.channel()).orElseThrow().send(payload).join();
+    }
+
+    static final class StubChannel implements NotificationChannel {
+
+        private final ChannelType type;
+        private final CompletableFuture<SendResult> ok = CompletableFuture.completedFuture(SendResult.ok("stub"));
+
+        StubChannel(ChannelType type) {
+            this.type = type;
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return type;
+        }
+
+        @Override
+        public CompletableFuture<SendResult> send(NotificationPayload payload) {
+            return ok;
+        }
+    }
+}
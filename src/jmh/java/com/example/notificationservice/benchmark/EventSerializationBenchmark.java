@@ -0,0 +1,67 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import com.example.notificationservice.messaging.NotificationEvent;
+import com.example.notificationservice.messaging.NotificationEventDeserializer;
+import com.example.notificationservice.messaging.NotificationEventSerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NotificationEvent} through the Kafka serializers selectable in {@code KafkaConfig} (JSON or
+ * binary) and the {@link NotificationEventDeserializer} that reads both, for short (SMS-sized) and long
+ * (email-sized) bodies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "notification-send";
+
+    @Param({"160", "8192"})
+    public int bodySize;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private Serializer<NotificationEvent> serializer;
+    private Deserializer<NotificationEvent> deserializer;
+    private NotificationEvent event;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = "binary".equals(format) ? new NotificationEventSerializer() : new JsonSerializer<>();
+        deserializer = new NotificationEventDeserializer();
+        event = new NotificationEvent(UUID.randomUUID(), ChannelType.EMAIL, "user@example.com",
+            "Welcome, Jane!", "b".repeat(bodySize), 0, NotificationPriority.NORMAL, Instant.now());
+        serialized = serializer.serialize(TOPIC, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public NotificationEvent deserialize() {
+        return deserializer.deserialize(TOPIC, serialized);
+    }
+}
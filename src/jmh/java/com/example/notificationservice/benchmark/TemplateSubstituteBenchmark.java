@@ -0,0 +1,62 @@
+package com.example.notificationservice.benchmark;
+
+import com.example.notificationservice.service.TemplateService;
+import com.example.notificationservice.service.TemplateText;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placeholder substitution across template sizes and placeholder counts. {@code substitute} parses
+ * the template on every call (the uncached path); {@code renderCompiled} is the per-request cost once
+ * a template has been compiled and cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateSubstituteBenchmark {
+
+    /** Approximate template length in characters. */
+    @Param({"64", "1024", "16384"})
+    public int templateSize;
+
+    @Param({"1", "10", "100"})
+    public int placeholders;
+
+    private String template;
+    private TemplateText compiled;
+    private Map<String, String> variables;
+
+    @Setup
+    public void setUp() {
+        variables = new HashMap<>();
+        for (int i = 0; i < placeholders; i++) {
+            variables.put("var" + i, "value-" + i);
+        }
+        // Spread the placeholders evenly through filler text
+        int filler = Math.max(1, (templateSize - placeholders * 8) / (placeholders + 1));
+        String text = "x".repeat(filler);
+        StringBuilder sb = new StringBuilder(templateSize + 16);
+        sb.append(text);
+        for (int i = 0; i < placeholders; i++) {
+            sb.append("${var").append(i).append('}').append(text);
+        }
+        template = sb.toString();
+        compiled = TemplateText.compile(template);
+    }
+
+    @Benchmark
+    public String substitute() {
+        return TemplateService.substitute(template, variables);
+    }
+
+    @Benchmark
+    public String renderCompiled() {
+        return compiled.render(variables);
+    }
+}
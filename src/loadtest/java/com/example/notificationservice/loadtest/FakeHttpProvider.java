@@ -0,0 +1,152 @@
+package com.example.notificationservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for an HTTP provider API (Twilio, FCM, Meta). Accepts any POST, waits the sampled
+ * latency on a timer (no thread is held while "the provider is working") and answers 200, 429 with
+ * Retry-After, 503 or a 400 recipient error according to its {@link ProviderBehaviour}. An FCM multicast
+ * ({@code registration_ids}) is answered with one result per token; the counters count messages,
+ * {@code requests} counts HTTP calls.
+ */
+class FakeHttpProvider implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String name;
+    private final ProviderBehaviour behaviour;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService responder;
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder ok = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+
+    FakeHttpProvider(String name, ProviderBehaviour behaviour) throws IOException {
+        this.name = name;
+        this.behaviour = behaviour;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.handlers = Executors.newFixedThreadPool(8, daemon("fake-" + name));
+        this.responder = Executors.newScheduledThreadPool(2, daemon("fake-" + name + "-responder"));
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    String name() {
+        return name;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int tokens;
+        try (InputStream body = exchange.getRequestBody()) {
+            tokens = multicastTokens(body.readAllBytes());
+        }
+        requests.increment();
+        ProviderBehaviour.Outcome outcome = behaviour.sampleOutcome();
+        responder.schedule(() -> respond(exchange, outcome, tokens), behaviour.sampleLatencyMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Number of {@code registration_ids} in an FCM multicast, or 0 for any other request. */
+    private static int multicastTokens(byte[] body) {
+        try {
+            return JSON.readTree(body).path("registration_ids").size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void respond(HttpExchange exchange, ProviderBehaviour.Outcome outcome, int tokens) {
+        int messages = Math.max(tokens, 1);
+        try {
+            switch (outcome) {
+                case OK -> {
+                    if (tokens > 0) {
+                        write(exchange, 200, multicastResponse(tokens));
+                    } else if (behaviour.sampleRejected()) {
+                        rejected.increment();
+                        write(exchange, 400, "{\"error\":\"invalid recipient\"}");
+                    } else {
+                        ok.increment();
+                        write(exchange, 200, "{\"sid\":\"" + UUID.randomUUID() + "\",\"message_id\":\"fake\",\"success\":1}");
+                    }
+                }
+                case THROTTLED -> {
+                    throttled.add(messages);
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(behaviour.retryAfterSeconds()));
+                    write(exchange, 429, "{\"error\":\"rate limited\"}");
+                }
+                case ERROR -> {
+                    errors.add(messages);
+                    write(exchange, 503, "{\"error\":\"unavailable\"}");
+                }
+            }
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+
+    private String multicastResponse(int tokens) {
+        StringBuilder results = new StringBuilder();
+        int failed = 0;
+        for (int i = 0; i < tokens; i++) {
+            results.append(i == 0 ? "" : ",");
+            if (behaviour.sampleRejected()) {
+                failed++;
+                results.append("{\"error\":\"NotRegistered\"}");
+            } else {
+                results.append("{\"message_id\":\"").append(UUID.randomUUID()).append("\"}");
+            }
+        }
+        ok.add(tokens - failed);
+        rejected.add(failed);
+        return "{\"multicast_id\":1,\"success\":" + (tokens - failed) + ",\"failure\":" + failed
+            + ",\"results\":[" + results + "]}";
+    }
+
+    private static void write(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+        handlers.shutdownNow();
+    }
+}
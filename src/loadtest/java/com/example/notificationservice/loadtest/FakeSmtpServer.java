@@ -0,0 +1,111 @@
+package com.example.notificationservice.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal SMTP sink (no auth, no TLS) standing in for the mail relay. Each message is acknowledged
+ * after the sampled latency; the configured error and throttle fractions are answered with 451 and
+ * 421 respectively, which the mail client surfaces as send failures.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ProviderBehaviour behaviour;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(FakeHttpProvider.daemon("fake-smtp"));
+
+    final LongAdder ok = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    FakeSmtpServer(ProviderBehaviour behaviour) throws IOException {
+        this.behaviour = behaviour;
+        this.serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        connections.execute(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> session(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            reply(out, "220 fake-smtp ready");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 fake-smtp");
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard message content
+                        }
+                        reply(out, deliver());
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // connection dropped by the client
+        }
+    }
+
+    private String deliver() throws InterruptedException {
+        Thread.sleep(behaviour.sampleLatencyMs());
+        return switch (behaviour.sampleOutcome()) {
+            case OK -> {
+                ok.increment();
+                yield "250 OK queued";
+            }
+            case THROTTLED -> {
+                throttled.increment();
+                yield "421 4.7.0 Try again later";
+            }
+            case ERROR -> {
+                errors.increment();
+                yield "451 4.3.0 Temporary failure";
+            }
+        };
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write("\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+}
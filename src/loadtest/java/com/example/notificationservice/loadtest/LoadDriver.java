@@ -0,0 +1,103 @@
+package com.example.notificationservice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Open-loop request generator: requests are issued on a fixed schedule regardless of how fast the
+ * service answers, and latency is measured from each request's scheduled start, so a stalled service
+ * shows up as latency rather than as a silently lower request rate. Requests beyond
+ * {@code maxInFlight} outstanding are counted as dropped instead of queued.
+ */
+class LoadDriver {
+
+    private final URI endpoint;
+    private final double rate;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final IntFunction<String> bodies;
+
+    /** {@code bodies} gives the JSON body of the i-th request. */
+    LoadDriver(URI endpoint, double rate, Duration duration, int maxInFlight, IntFunction<String> bodies) {
+        this.endpoint = endpoint;
+        this.rate = rate;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+        this.bodies = bodies;
+    }
+
+    Result run() throws InterruptedException {
+        int planned = (int) Math.ceil(rate * duration.toMillis() / 1000.0);
+        long[] latencies = new long[planned];
+        AtomicInteger recorded = new AtomicInteger();
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        LongAdder transportErrors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8, FakeHttpProvider.daemon("load-driver"));
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(executor)
+            .build();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        for (int i = 0; i < planned; i++) {
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(bodies.apply(i)))
+                .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                latencies[recorded.getAndIncrement()] = System.nanoTime() - intended;
+                if (e != null) {
+                    transportErrors.increment();
+                } else {
+                    statusCounts.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdownNow();
+
+        long[] sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        return new Result(planned, sorted, statuses, transportErrors.sum(), dropped.sum(), elapsedNanos);
+    }
+
+    record Result(int planned, long[] sortedLatencyNanos, Map<Integer, Long> statusCounts,
+                  long transportErrors, long dropped, long elapsedNanos) {
+
+        long accepted() {
+            return statusCounts.getOrDefault(202, 0L);
+        }
+    }
+}
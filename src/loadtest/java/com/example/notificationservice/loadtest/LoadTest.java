@@ -0,0 +1,277 @@
+package com.example.notificationservice.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.notificationservice.NotificationServiceApplication;
+import com.example.notificationservice.domain.ChannelType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.File;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * End-to-end load test: starts fake Twilio, FCM, Meta and SMTP endpoints, optionally an embedded
+ * Kafka broker, then the service itself pointed at them, drives a fixed request rate through
+ * {@code POST /api/v1/notifications} and reports throughput, accept latency, time-to-SENT and
+ * failures. Arguments are {@code key=value}:
+ * <pre>
+ * mode=inprocess|queue   rate=200   duration=60s   channels=SMS,PUSH,WHATSAPP,EMAIL
+ * recipients=1   distinct-recipients=100000   max-in-flight=2000   drain-timeout=120s   partitions=4   report=target/loadtest-report.json
+ * priority=NORMAL   high-share=0   (fraction of requests sent as HIGH on top of that priority, e.g. 0.05)
+ * sms|push|whatsapp|smtp.latency=lognormal:80,400   .error-rate=0.01   .throttle-rate=0.02   .retry-after=1
+ * sms|push|whatsapp.reject-rate=0.3   (fraction of messages turned down as recipient errors)
+ * sms|push|whatsapp|smtp.outage=10-20   (seconds after the provider's first request during which every request fails)
+ * app.&lt;property&gt;=value    passed to the service, e.g. app.notification.channels.sms.rate-limit.permits-per-second=1000
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String[] NON_TERMINAL = {"ACCEPTED", "PENDING", "SCHEDULED"};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                settings.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        boolean queued = "queue".equals(settings.getOrDefault("mode", "inprocess"));
+        double rate = Double.parseDouble(settings.getOrDefault("rate", "200"));
+        Duration duration = DurationStyle.detectAndParse(settings.getOrDefault("duration", "60s"));
+        Duration drainTimeout = DurationStyle.detectAndParse(settings.getOrDefault("drain-timeout", "120s"));
+        int recipients = Integer.parseInt(settings.getOrDefault("recipients", "1"));
+        int distinctRecipients = Integer.parseInt(settings.getOrDefault("distinct-recipients", "100000"));
+        int maxInFlight = Integer.parseInt(settings.getOrDefault("max-in-flight", "2000"));
+        String priority = settings.getOrDefault("priority", "NORMAL");
+        double highShare = Double.parseDouble(settings.getOrDefault("high-share", "0"));
+        List<ChannelType> channels = Arrays.stream(settings.getOrDefault("channels", "SMS,PUSH,WHATSAPP,EMAIL").split(","))
+            .map(String::trim)
+            .map(ChannelType::valueOf)
+            .toList();
+
+        try (FakeHttpProvider twilio = new FakeHttpProvider("sms", ProviderBehaviour.from(settings, "sms", "lognormal:80,400"));
+             FakeHttpProvider fcm = new FakeHttpProvider("push", ProviderBehaviour.from(settings, "push", "lognormal:40,200"));
+             FakeHttpProvider meta = new FakeHttpProvider("whatsapp", ProviderBehaviour.from(settings, "whatsapp", "lognormal:120,600"));
+             FakeSmtpServer smtp = new FakeSmtpServer(ProviderBehaviour.from(settings, "smtp", "lognormal:150,800"))) {
+
+            EmbeddedKafkaKraftBroker kafka = null;
+            if (queued) {
+                // The broker starts before Spring configures logging; keep its INFO chatter out of the report
+                for (String logger : List.of("kafka", "org.apache.kafka", "org.apache.zookeeper")) {
+                    ((Logger) LoggerFactory.getLogger(logger)).setLevel(Level.WARN);
+                }
+                kafka = new EmbeddedKafkaKraftBroker(1, Integer.parseInt(settings.getOrDefault("partitions", "4")),
+                    "notification-send-high", "notification-send", "notification-send-low");
+                kafka.afterPropertiesSet();
+            }
+
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("server.port", "0");
+            properties.put("notification.queue.enabled", String.valueOf(queued));
+            properties.put("notification.channels.sms.api-url", twilio.baseUrl() + "/2010-04-01/Accounts");
+            properties.put("notification.channels.push.fcm-url", fcm.baseUrl() + "/fcm/send");
+            properties.put("notification.channels.whatsapp.api-url", meta.baseUrl() + "/v18.0");
+            properties.put("spring.mail.host", "127.0.0.1");
+            properties.put("spring.mail.port", String.valueOf(smtp.port()));
+            properties.put("spring.mail.username", "");
+            properties.put("spring.mail.password", "");
+            properties.put("spring.mail.properties.mail.smtp.auth", "false");
+            properties.put("spring.mail.properties.mail.smtp.starttls.enable", "false");
+            properties.put("logging.level.root", "WARN");
+            properties.put("logging.level.com.example.notificationservice", "OFF");
+            if (kafka != null) {
+                properties.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+            }
+            settings.forEach((key, value) -> {
+                if (key.startsWith("app.")) {
+                    properties.put(key.substring(4), value);
+                }
+            });
+
+            // Passed as command-line arguments so they override application.yml
+            String[] appArgs = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(NotificationServiceApplication.class)
+                .run(appArgs);
+            try {
+                String port = context.getEnvironment().getProperty("local.server.port");
+                URI endpoint = URI.create("http://127.0.0.1:" + port + "/api/v1/notifications");
+                // Channels take turns; the HIGH requests are spread evenly through each round of them.
+                // Addresses cycle through distinct-recipients, so requests only share a recipient (and with
+                // it their Kafka key) as often as real traffic would.
+                int period = highShare > 0 ? Math.max(1, (int) Math.round(1 / highShare)) : 1;
+                IntFunction<String> bodies = i -> requestBody(channels.get(i % channels.size()),
+                    (int) ((long) i * recipients % distinctRecipients), recipients,
+                    highShare > 0 && (i / channels.size()) % period == 0 ? "HIGH" : priority);
+
+                System.out.printf("Driving %.0f req/s for %s (%s mode, channels %s)%n", rate, duration,
+                    queued ? "queue" : "in-process", channels);
+                LoadDriver.Result load = new LoadDriver(endpoint, rate, duration, maxInFlight, bodies).run();
+
+                JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+                long drainStart = System.nanoTime();
+                boolean drained = awaitDrain(jdbc, drainTimeout);
+                long drainNanos = System.nanoTime() - drainStart;
+
+                Map<String, Object> report = report(settings, load, jdbc, drained, drainNanos,
+                    List.of(twilio, fcm, meta), smtp);
+                print(report);
+                File file = new File(settings.getOrDefault("report", "target/loadtest-report.json"));
+                file.getParentFile().mkdirs();
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+                System.out.println("Report written to " + file.getPath());
+            } finally {
+                context.close();
+                if (kafka != null) {
+                    kafka.destroy();
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String requestBody(ChannelType channel, int firstRecipient, int recipients, String priority) {
+        String template = "welcome-" + channel.name().toLowerCase();
+        StringBuilder sb = new StringBuilder()
+            .append("{\"templateId\":\"").append(template).append("\",\"channels\":[\"").append(channel).append("\"],")
+            .append("\"priority\":\"").append(priority).append("\",")
+            .append("\"variables\":{\"userName\":\"Load\",\"code\":\"123456\",\"loginUrl\":\"https://example.com/login\"},")
+            .append("\"recipients\":[");
+        for (int i = 0; i < recipients; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"channel\":\"").append(channel).append("\",\"address\":\"").append(address(channel, firstRecipient + i)).append("\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String address(ChannelType channel, int i) {
+        return switch (channel) {
+            case EMAIL -> "user" + i + "@example.com";
+            case PUSH -> "device-token-" + i;
+            default -> "+1555" + String.format("%07d", i);
+        };
+    }
+
+    private static boolean awaitDrain(JdbcTemplate jdbc, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String sql = "select count(*) from notifications where status in ('" + String.join("','", NON_TERMINAL) + "')";
+        while (System.nanoTime() < deadline) {
+            Long open = jdbc.queryForObject(sql, Long.class);
+            if (open == null || open == 0) {
+                return true;
+            }
+            TimeUnit.MILLISECONDS.sleep(250);
+        }
+        return false;
+    }
+
+    private static Map<String, Object> report(Map<String, String> settings, LoadDriver.Result load, JdbcTemplate jdbc,
+                                              boolean drained, long drainNanos,
+                                              List<FakeHttpProvider> providers, FakeSmtpServer smtp) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        List<Long> timeToSent = new ArrayList<>();
+        Map<String, List<Long>> timeToSentByPriority = new TreeMap<>();
+        jdbc.query("select status, created_at, sent_at, priority from notifications", rs -> {
+            byStatus.merge(rs.getString(1), 1L, Long::sum);
+            Timestamp created = rs.getTimestamp(2);
+            Timestamp sent = rs.getTimestamp(3);
+            if (sent != null && created != null) {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(sent.getTime() - created.getTime());
+                timeToSent.add(nanos);
+                timeToSentByPriority.computeIfAbsent(rs.getString(4), k -> new ArrayList<>()).add(nanos);
+            }
+        });
+        long[] tts = timeToSent.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Object> ttsByPriority = new TreeMap<>();
+        timeToSentByPriority.forEach((priority, values) ->
+            ttsByPriority.put(priority, percentiles(values.stream().mapToLong(Long::longValue).sorted().toArray())));
+        double elapsedSeconds = load.elapsedNanos() / 1e9;
+        long sent = byStatus.getOrDefault("SENT", 0L);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", new TreeMap<>(settings));
+        Map<String, Object> requests = new LinkedHashMap<>();
+        requests.put("planned", load.planned());
+        requests.put("httpStatus", load.statusCounts());
+        requests.put("transportErrors", load.transportErrors());
+        requests.put("dropped", load.dropped());
+        requests.put("acceptedPerSecond", round(load.accepted() / elapsedSeconds));
+        requests.put("acceptLatencyMs", percentiles(load.sortedLatencyNanos()));
+        report.put("requests", requests);
+        Map<String, Object> delivery = new LinkedHashMap<>();
+        delivery.put("byStatus", byStatus);
+        delivery.put("drained", drained);
+        delivery.put("sentPerSecond", round(sent / ((load.elapsedNanos() + drainNanos) / 1e9)));
+        delivery.put("timeToSentMs", percentiles(tts));
+        delivery.put("timeToSentMsByPriority", ttsByPriority);
+        report.put("delivery", delivery);
+        Map<String, Object> fakes = new LinkedHashMap<>();
+        for (FakeHttpProvider provider : providers) {
+            fakes.put(provider.name(), Map.of("requests", provider.requests.sum(), "ok", provider.ok.sum(),
+                "throttled", provider.throttled.sum(), "errors", provider.errors.sum(),
+                "rejected", provider.rejected.sum()));
+        }
+        fakes.put("smtp", Map.of("ok", smtp.ok.sum(), "throttled", smtp.throttled.sum(), "errors", smtp.errors.sum()));
+        report.put("providers", fakes);
+        return report;
+    }
+
+    private static Map<String, Object> percentiles(long[] sortedNanos) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sortedNanos.length);
+        if (sortedNanos.length == 0) {
+            return result;
+        }
+        for (double p : new double[] {50, 90, 95, 99, 99.9}) {
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p / 100 * sortedNanos.length) - 1);
+            result.put("p" + (p % 1 == 0 ? String.valueOf((int) p) : String.valueOf(p)), round(sortedNanos[Math.max(0, index)] / 1e6));
+        }
+        result.put("max", round(sortedNanos[sortedNanos.length - 1] / 1e6));
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        Map<String, Object> requests = (Map<String, Object>) report.get("requests");
+        Map<String, Object> delivery = (Map<String, Object>) report.get("delivery");
+        System.out.println();
+        System.out.println("Requests      " + requests.get("planned") + " planned, HTTP " + requests.get("httpStatus")
+            + ", transport errors " + requests.get("transportErrors") + ", dropped " + requests.get("dropped"));
+        System.out.println("Throughput    " + requests.get("acceptedPerSecond") + " accepted/s, "
+            + delivery.get("sentPerSecond") + " sent/s");
+        System.out.println("Accept (ms)   " + requests.get("acceptLatencyMs"));
+        System.out.println("To SENT (ms)  " + delivery.get("timeToSentMs"));
+        ((Map<String, Object>) delivery.get("timeToSentMsByPriority")).forEach((priority, tts) ->
+            System.out.println("  " + String.format("%-12s", priority) + tts));
+        System.out.println("Outcome       " + delivery.get("byStatus") + (Boolean.TRUE.equals(delivery.get("drained")) ? "" : " (not drained)"));
+        System.out.println("Providers     " + report.get("providers"));
+    }
+}
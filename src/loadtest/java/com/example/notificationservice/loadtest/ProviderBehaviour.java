@@ -0,0 +1,75 @@
+package com.example.notificationservice.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How a fake provider responds: a latency distribution plus the fraction of requests answered with
+ * a server error or a 429. Read from {@code <provider>.latency}, {@code <provider>.error-rate},
+ * {@code <provider>.throttle-rate} and {@code <provider>.retry-after} (seconds).
+ * {@code <provider>.outage=<from>-<to>} additionally fails every request between those seconds after
+ * the provider's first request. {@code <provider>.reject-rate} is the fraction of the remaining
+ * messages an HTTP provider turns down as a recipient error (a 400, or an FCM {@code NotRegistered} token).
+ * <p>
+ * Latency specs: {@code fixed:<ms>}, {@code uniform:<min>-<max>} or {@code lognormal:<p50>,<p99>}.
+ */
+record ProviderBehaviour(String latency, double errorRate, double throttleRate, double rejectRate,
+                         int retryAfterSeconds, long outageFromNanos, long outageToNanos, AtomicLong firstRequest) {
+
+    /** z-score of the 99th percentile of a standard normal distribution. */
+    private static final double Z99 = 2.326;
+
+    static ProviderBehaviour from(Map<String, String> settings, String provider, String defaultLatency) {
+        String[] outage = settings.getOrDefault(provider + ".outage", "0-0").split("-");
+        return new ProviderBehaviour(
+            settings.getOrDefault(provider + ".latency", defaultLatency),
+            Double.parseDouble(settings.getOrDefault(provider + ".error-rate", "0.0")),
+            Double.parseDouble(settings.getOrDefault(provider + ".throttle-rate", "0.0")),
+            Double.parseDouble(settings.getOrDefault(provider + ".reject-rate", "0.0")),
+            Integer.parseInt(settings.getOrDefault(provider + ".retry-after", "1")),
+            (long) (Double.parseDouble(outage[0]) * 1e9),
+            (long) (Double.parseDouble(outage[1]) * 1e9),
+            new AtomicLong(Long.MIN_VALUE));
+    }
+
+    long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] spec = latency.split(":", 2);
+        switch (spec[0]) {
+            case "fixed":
+                return Long.parseLong(spec[1]);
+            case "uniform": {
+                String[] range = spec[1].split("-");
+                return random.nextLong(Long.parseLong(range[0]), Long.parseLong(range[1]) + 1);
+            }
+            case "lognormal": {
+                String[] quantiles = spec[1].split(",");
+                double median = Double.parseDouble(quantiles[0]);
+                double p99 = Double.parseDouble(quantiles[1]);
+                double mu = Math.log(median);
+                double sigma = Math.log(p99 / median) / Z99;
+                return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown latency spec: " + latency);
+        }
+    }
+
+    Outcome sampleOutcome() {
+        long now = System.nanoTime();
+        firstRequest.compareAndSet(Long.MIN_VALUE, now);
+        long sinceFirst = now - firstRequest.get();
+        if (sinceFirst >= outageFromNanos && sinceFirst < outageToNanos) return Outcome.ERROR;
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < throttleRate) return Outcome.THROTTLED;
+        if (roll < throttleRate + errorRate) return Outcome.ERROR;
+        return Outcome.OK;
+    }
+
+    boolean sampleRejected() {
+        return ThreadLocalRandom.current().nextDouble() < rejectRate;
+    }
+
+    enum Outcome { OK, THROTTLED, ERROR }
+}
@@ -0,0 +1,47 @@
+package com.example.notificationservice.api;
+
+import com.example.notificationservice.api.dto.CampaignResponse;
+import com.example.notificationservice.domain.Campaign;
+import com.example.notificationservice.domain.CampaignStatus;
+import com.example.notificationservice.service.CampaignService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Bulk fan-out. The body is NDJSON: a campaign header line, then one recipient per line. The stream
+ * is consumed incrementally; a client that puts a {@code campaignId} in the header can poll GET /{id}
+ * for progress while a large upload is still running.
+ */
+@RestController
+@RequestMapping("/api/v1/campaigns")
+public class CampaignController {
+
+    private final CampaignService campaignService;
+
+    public CampaignController(CampaignService campaignService) {
+        this.campaignService = campaignService;
+    }
+
+    @PostMapping(consumes = {"application/x-ndjson", "application/jsonl", "application/json"})
+    public ResponseEntity<CampaignResponse> create(InputStream body) throws IOException {
+        Campaign campaign = campaignService.run(body);
+        HttpStatus status = campaign.getStatus() == CampaignStatus.FAILED ? HttpStatus.BAD_REQUEST : HttpStatus.ACCEPTED;
+        return ResponseEntity
+            .status(status)
+            .location(URI.create("/api/v1/campaigns/" + campaign.getId()))
+            .body(CampaignResponse.from(campaign));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CampaignResponse> get(@PathVariable UUID id) {
+        return campaignService.find(id)
+            .map(c -> ResponseEntity.ok(CampaignResponse.from(c)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
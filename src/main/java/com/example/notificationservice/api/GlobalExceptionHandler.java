@@ -1,6 +1,8 @@
 package com.example.notificationservice.api;
 
 import com.example.notificationservice.api.dto.NotificationResponse;
+import com.example.notificationservice.service.CampaignExistsException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -21,4 +23,16 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest()
             .body(new NotificationResponse(null, "INVALID"));
     }
+
+    @ExceptionHandler(CampaignExistsException.class)
+    public ResponseEntity<NotificationResponse> handleCampaignExists(CampaignExistsException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(new NotificationResponse(null, "DUPLICATE"));
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<NotificationResponse> handleMalformedJson(JsonProcessingException ex) {
+        return ResponseEntity.badRequest()
+            .body(new NotificationResponse(null, "INVALID"));
+    }
 }
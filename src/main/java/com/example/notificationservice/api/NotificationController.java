@@ -3,9 +3,9 @@ package com.example.notificationservice.api;
 import com.example.notificationservice.api.dto.NotificationRequest;
 import com.example.notificationservice.api.dto.NotificationResponse;
 import com.example.notificationservice.domain.Notification;
-import com.example.notificationservice.domain.NotificationStatus;
-import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.service.IdempotencyService;
 import com.example.notificationservice.service.NotificationOrchestrator;
+import com.example.notificationservice.service.status.NotificationStatusCache;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,47 +18,75 @@ import java.util.UUID;
 @RequestMapping("/api/v1/notifications")
 public class NotificationController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final NotificationOrchestrator orchestrator;
-    private final NotificationRepository notificationRepository;
+    private final NotificationStatusCache statusCache;
+    private final IdempotencyService idempotencyService;
 
     public NotificationController(NotificationOrchestrator orchestrator,
-                                  NotificationRepository notificationRepository) {
+                                  NotificationStatusCache statusCache,
+                                  IdempotencyService idempotencyService) {
         this.orchestrator = orchestrator;
-        this.notificationRepository = notificationRepository;
+        this.statusCache = statusCache;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * With an {@code Idempotency-Key}, a repeat of an accepted request returns the original response
+     * (marked {@code Idempotent-Replayed: true}) without accepting anything again.
+     */
     @PostMapping
     public ResponseEntity<NotificationResponse> create(@Valid @RequestBody NotificationRequest request,
                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return toResponse(accept(request));
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                .body(new NotificationResponse(null, "INVALID"));
+        }
+        IdempotencyService.Outcome outcome = idempotencyService.execute(idempotencyKey, () -> accept(request));
+        ResponseEntity<NotificationResponse> response = toResponse(outcome.response());
+        if (outcome.replayed()) {
+            return ResponseEntity.status(response.getStatusCode())
+                .header("Idempotent-Replayed", "true")
+                .body(response.getBody());
+        }
+        return response;
+    }
+
+    private IdempotencyService.StoredResponse accept(NotificationRequest request) {
         try {
             List<Notification> created = orchestrator.accept(request);
             if (created.isEmpty()) {
-                return ResponseEntity.badRequest()
-                    .body(new NotificationResponse(null, "INVALID"));
+                return new IdempotencyService.StoredResponse(HttpStatus.BAD_REQUEST.value(), null, "INVALID");
             }
             Notification first = created.get(0);
-            return ResponseEntity
-                .status(HttpStatus.ACCEPTED)
-                .body(new NotificationResponse(first.getId(), NotificationStatus.ACCEPTED.name()));
+            return new IdempotencyService.StoredResponse(HttpStatus.ACCEPTED.value(), first.getId(), first.getStatus().name());
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest()
-                .body(new NotificationResponse(null, "INVALID"));
+            return new IdempotencyService.StoredResponse(HttpStatus.BAD_REQUEST.value(), null, "INVALID");
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new NotificationResponse(null, "ERROR"));
+            return new IdempotencyService.StoredResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), null, "ERROR");
         }
     }
 
+    private static ResponseEntity<NotificationResponse> toResponse(IdempotencyService.StoredResponse stored) {
+        return ResponseEntity.status(stored.httpStatus())
+            .body(new NotificationResponse(stored.notificationId(), stored.status()));
+    }
+
+    /** Served from the {@link NotificationStatusCache}; a miss reads the status columns only. */
     @GetMapping("/{id}")
     public ResponseEntity<NotificationStatusDto> get(@PathVariable UUID id) {
-        return notificationRepository.findById(id)
+        return statusCache.find(id)
             .map(n -> ResponseEntity.ok(new NotificationStatusDto(
-                n.getId(),
-                n.getStatus().name(),
-                n.getChannel().name(),
-                n.getRecipient(),
-                n.getSentAt(),
-                n.getErrorMessage())))
+                n.id(),
+                n.status().name(),
+                n.channel().name(),
+                n.recipient(),
+                n.sentAt(),
+                n.errorMessage())))
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -0,0 +1,41 @@
+package com.example.notificationservice.api.dto;
+
+import com.example.notificationservice.domain.ChannelType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * First line of a bulk NDJSON stream. Every following line is a {@link RecipientDto}.
+ * <p>
+ * {@code campaignId} is optional; a client that sets it can poll the campaign while its recipients
+ * are still uploading. Without it the server picks one and returns it when the upload ends.
+ */
+public class CampaignRequest {
+
+    private UUID campaignId;
+
+    private String templateId;
+
+    private List<ChannelType> channels;
+
+    private Map<String, String> variables;
+
+    private String priority = "NORMAL";
+
+    private String scheduledAt;
+
+    public UUID getCampaignId() { return campaignId; }
+    public void setCampaignId(UUID campaignId) { this.campaignId = campaignId; }
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
+    public List<ChannelType> getChannels() { return channels; }
+    public void setChannels(List<ChannelType> channels) { this.channels = channels; }
+    public Map<String, String> getVariables() { return variables; }
+    public void setVariables(Map<String, String> variables) { this.variables = variables; }
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+    public String getScheduledAt() { return scheduledAt; }
+    public void setScheduledAt(String scheduledAt) { this.scheduledAt = scheduledAt; }
+}
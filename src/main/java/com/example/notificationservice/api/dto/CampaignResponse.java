@@ -0,0 +1,18 @@
+package com.example.notificationservice.api.dto;
+
+import com.example.notificationservice.domain.Campaign;
+
+import java.util.UUID;
+
+public record CampaignResponse(
+    UUID campaignId,
+    String status,
+    long accepted,
+    long rejected,
+    int chunks
+) {
+    public static CampaignResponse from(Campaign c) {
+        return new CampaignResponse(c.getId(), c.getStatus().name(), c.getAcceptedCount(),
+            c.getRejectedCount(), c.getChunkCount());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.notificationservice.channel;
+
+/**
+ * Wraps channels as they are registered in {@link ChannelRegistry} (rate limiting, metrics, ...).
+ * Decorators are applied in {@link org.springframework.core.annotation.Order} order, so the lowest
+ * order ends up innermost, closest to the provider call.
+ */
+public interface ChannelDecorator {
+
+    NotificationChannel decorate(NotificationChannel channel);
+}
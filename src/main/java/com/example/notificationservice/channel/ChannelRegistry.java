@@ -13,12 +13,21 @@ public class ChannelRegistry {
 
     private final Map<ChannelType, NotificationChannel> channelsByType;
 
-    public ChannelRegistry(List<NotificationChannel> channels) {
+    public ChannelRegistry(List<NotificationChannel> channels, List<ChannelDecorator> decorators) {
         this.channelsByType = channels.stream()
             .filter(NotificationChannel::isEnabled)
+            .map(c -> decorate(c, decorators))
             .collect(Collectors.toUnmodifiableMap(NotificationChannel::getChannelType, c -> c));
     }
 
+    private static NotificationChannel decorate(NotificationChannel channel, List<ChannelDecorator> decorators) {
+        NotificationChannel decorated = channel;
+        for (ChannelDecorator decorator : decorators) {
+            decorated = decorator.decorate(decorated);
+        }
+        return decorated;
+    }
+
     public Optional<NotificationChannel> getChannel(ChannelType type) {
         return Optional.ofNullable(channelsByType.get(type));
     }
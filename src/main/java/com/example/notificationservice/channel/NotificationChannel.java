@@ -16,6 +16,15 @@ public interface NotificationChannel {
      */
     CompletableFuture<SendResult> send(NotificationPayload payload);
 
+    /**
+     * Provider account the channel sends as (e.g. an SMS account SID), used to key per-account limits:
+     * channels returning the same account share them. Defaults to the channel type, so a channel that
+     * names no account shares with nobody.
+     */
+    default String getProviderAccount() {
+        return getChannelType().name();
+    }
+
     /**
      * Whether this channel is enabled (e.g. via configuration).
      */
@@ -11,4 +11,8 @@ public record NotificationPayload(
     String subject,
     String body,
     int retryCount
-) {}
+) {
+    public NotificationPayload withRetryCount(int retryCount) {
+        return new NotificationPayload(notificationId, channel, recipient, subject, body, retryCount);
+    }
+}
@@ -1,6 +1,25 @@
 package com.example.notificationservice.channel;
 
-public record SendResult(boolean success, String externalId, String errorMessage) {
+import java.time.Duration;
+
+/**
+ * Outcome of a send. {@code retryAfter} is set when the provider throttled the request (HTTP 429),
+ * carrying its Retry-After hint, or {@link Duration#ZERO} when it gave none.
+ * <p>
+ * An {@code unavailable} result means the send was never attempted because the channel is refusing
+ * work for now (its circuit is open); {@code retryAfter} then says when to try again. Callers park the
+ * notification until then instead of counting the attempt against its retries.
+ * <p>
+ * A {@code rejected} result means the provider answered and turned down this message for good, e.g. an
+ * unregistered device token or a malformed phone number. Retrying will not help, and it says nothing
+ * about the provider's health.
+ */
+public record SendResult(boolean success, String externalId, String errorMessage, Duration retryAfter,
+                         boolean unavailable, boolean rejected) {
+
+    public SendResult(boolean success, String externalId, String errorMessage) {
+        this(success, externalId, errorMessage, null, false, false);
+    }
 
     public static SendResult ok(String externalId) {
         return new SendResult(true, externalId, null);
@@ -9,4 +28,20 @@ public record SendResult(boolean success, String externalId, String errorMessage
     public static SendResult failure(String errorMessage) {
         return new SendResult(false, null, errorMessage);
     }
+
+    public static SendResult throttled(String errorMessage, Duration retryAfter) {
+        return new SendResult(false, null, errorMessage, retryAfter != null ? retryAfter : Duration.ZERO, false, false);
+    }
+
+    public static SendResult unavailable(String errorMessage, Duration retryAfter) {
+        return new SendResult(false, null, errorMessage, retryAfter, true, false);
+    }
+
+    public static SendResult rejected(String errorMessage) {
+        return new SendResult(false, null, errorMessage, null, false, true);
+    }
+
+    public boolean isThrottled() {
+        return retryAfter != null && !unavailable;
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.notificationservice.channel.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Groups items submitted within a short window into batches for providers that are cheaper per item
+ * in bulk. A batch is handed to {@code handler} (on {@code executor}) as soon as it holds
+ * {@code maxBatchSize} items, or {@code maxDelay} after its first item arrived, whichever comes first.
+ * A single item therefore waits at most {@code maxDelay}.
+ * <p>
+ * With a {@code groupBy} function, only items with equal keys share a batch; each key fills and
+ * times out on its own.
+ * <p>
+ * The handler owns the items: it must complete whatever futures they carry, including on failure.
+ */
+public class MicroBatcher<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Function<? super T, ?> groupBy;
+    private final Consumer<List<T>> handler;
+    private final Executor executor;
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final Map<Object, Group<T>> pending = new HashMap<>();
+    private boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, Consumer<List<T>> handler, Executor executor) {
+        this(name, maxBatchSize, maxDelay, item -> name, handler, executor);
+    }
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, Function<? super T, ?> groupBy,
+                        Consumer<List<T>> handler, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.groupBy = groupBy;
+        this.handler = handler;
+        this.executor = executor;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, name + "-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public void submit(T item) {
+        Object key = groupBy.apply(item);
+        List<T> ready = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException(name + " batcher is closed");
+            }
+            Group<T> group = pending.computeIfAbsent(key, k -> new Group<>(maxBatchSize));
+            group.items.add(item);
+            if (group.items.size() >= maxBatchSize || maxDelayNanos <= 0) {
+                ready = take(key);
+            } else if (group.items.size() == 1) {
+                group.deadline = timer.schedule(() -> flush(key), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    /** Hands everything pending to the handler now. */
+    public void flush() {
+        List<List<T>> batches = new ArrayList<>();
+        synchronized (this) {
+            for (Object key : new ArrayList<>(pending.keySet())) {
+                batches.add(take(key));
+            }
+        }
+        batches.forEach(this::dispatch);
+    }
+
+    private void flush(Object key) {
+        List<T> batch;
+        synchronized (this) {
+            batch = pending.containsKey(key) ? take(key) : null;
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private List<T> take(Object key) {
+        Group<T> group = pending.remove(key);
+        if (group.deadline != null) {
+            group.deadline.cancel(false);
+        }
+        return group.items;
+    }
+
+    private void dispatch(List<T> batch) {
+        try {
+            executor.execute(() -> handler.accept(batch));
+        } catch (RuntimeException e) {
+            // Executor saturated or shut down: run on the caller so the items are still completed
+            log.warn("{} batch of {} ran on the submitting thread: {}", name, batch.size(), e.getMessage());
+            handler.accept(batch);
+        }
+    }
+
+    /** Stops accepting items and hands the last partial batches to the handler. */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdownNow();
+    }
+
+    private static final class Group<T> {
+
+        final List<T> items;
+        ScheduledFuture<?> deadline;
+
+        Group(int capacity) {
+            this.items = new ArrayList<>(Math.min(capacity, 64));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.notificationservice.channel.bulkhead;
+
+/**
+ * Concurrency limit in the gradient form of Vegas. Instead of comparing each send with the fastest one
+ * ever seen, which makes a provider with a long latency tail look permanently queued, it compares the
+ * recent average latency with a long-running one: while they agree the limit grows by about
+ * {@code sqrt(limit)} per send, and once recent sends take more than {@link #TOLERANCE} times longer it
+ * shrinks in proportion (by at most half). The long average follows the short one, slowly upwards and
+ * quickly downwards, so the limit tracks a provider whose baseline latency drifts.
+ * <p>
+ * Loss is handled AIMD-style: a throttled send, an exception or an error rate above
+ * {@code maxErrorRate} cuts the limit by {@code backoffRatio}, at most once per round trip. Not
+ * thread-safe; callers serialise access.
+ */
+final class AdaptiveLimit {
+
+    /** How much slower recent sends may be than the long-run average before the limit shrinks. */
+    static final double TOLERANCE = 1.5;
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double ERROR_SMOOTHING = 0.05;
+    /** Fraction of each computed limit that is applied, to damp oscillation. */
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    enum Outcome { SUCCESS, FAILURE, DROPPED }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double maxErrorRate;
+    private final double longSmoothing;
+
+    private double limit;
+    private double shortRtt;
+    private double longRtt;
+    private long lastCut = Long.MIN_VALUE;
+    private double errorRate;
+
+    /**
+     * @param longWindow roughly how many sends the long-run latency average spans
+     */
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double maxErrorRate,
+                  int longWindow) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.maxErrorRate = maxErrorRate;
+        this.longSmoothing = 2.0 / (Math.max(1, longWindow) + 1);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    int get() {
+        return (int) limit;
+    }
+
+    /**
+     * Feeds one completed send, started at {@code startNanos} and finished at {@code endNanos} with
+     * {@code inFlight} sends (itself included) outstanding.
+     */
+    void onSample(long startNanos, long endNanos, int inFlight, Outcome outcome) {
+        errorRate += ERROR_SMOOTHING * ((outcome == Outcome.SUCCESS ? 0 : 1) - errorRate);
+        if (outcome == Outcome.DROPPED || errorRate > maxErrorRate) {
+            // Sends started before the last cut saw the old limit; only count newer ones against it
+            if (startNanos > lastCut) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastCut = endNanos;
+            }
+            return;
+        }
+        if (outcome != Outcome.SUCCESS) {
+            // Rejections such as an invalid recipient come back fast and say nothing about load
+            return;
+        }
+
+        double rtt = Math.max(1, endNanos - startNanos);
+        if (shortRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        }
+        shortRtt += SHORT_SMOOTHING * (rtt - shortRtt);
+        longRtt += longSmoothing * (shortRtt - longRtt);
+        if (longRtt > 2 * shortRtt) {
+            // Latency has dropped a lot (a backlog cleared, a faster provider node): catch up fast
+            longRtt = shortRtt + (longRtt - shortRtt) / 2;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && inFlight * 2 < limit) {
+            // Only grow a limit that is actually being used
+            return;
+        }
+        target = limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+        limit = Math.min(maxLimit, Math.max(minLimit, target));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.notificationservice.channel.bulkhead;
+
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lets at most {@link AdaptiveLimit#get()} sends reach the provider at once. Sends beyond the limit wait
+ * in a FIFO queue of {@code queueCapacity} and start as earlier ones complete; once the queue is full a
+ * send is refused at once with a throttled result, so the rate limiter in front backs off as it would
+ * for the provider itself.
+ */
+class BulkheadChannel implements NotificationChannel {
+
+    private final NotificationChannel delegate;
+    private final AdaptiveLimit limit;
+    private final int queueCapacity;
+    private final Counter rejected;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiting> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    BulkheadChannel(NotificationChannel delegate, AdaptiveLimit limit, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.queueCapacity = queueCapacity;
+        String channel = delegate.getChannelType().name();
+        this.rejected = Counter.builder("notification.bulkhead.rejected")
+            .description("Sends refused because the channel's bulkhead queue was full")
+            .tag("channel", channel)
+            .register(meterRegistry);
+        Gauge.builder("notification.bulkhead.limit", this, BulkheadChannel::currentLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("channel", channel)
+            .register(meterRegistry);
+        Gauge.builder("notification.bulkhead.in-flight", this, BulkheadChannel::inFlight)
+            .description("Sends outstanding at the provider")
+            .tag("channel", channel)
+            .register(meterRegistry);
+        Gauge.builder("notification.bulkhead.queued", this, BulkheadChannel::queued)
+            .description("Sends waiting for a slot under the concurrency limit")
+            .tag("channel", channel)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderAccount() {
+        return delegate.getProviderAccount();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public CompletableFuture<SendResult> send(NotificationPayload payload) {
+        lock.lock();
+        try {
+            if (queue.isEmpty() && inFlight < limit.get()) {
+                inFlight++;
+            } else if (queue.size() < queueCapacity) {
+                Waiting waiting = new Waiting(payload, new CompletableFuture<>());
+                queue.addLast(waiting);
+                return waiting.result();
+            } else {
+                rejected.increment();
+                return CompletableFuture.completedFuture(SendResult.throttled(
+                    "Bulkhead queue for " + getChannelType() + " is full (" + queueCapacity + ")", Duration.ZERO));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return start(payload);
+    }
+
+    /** Calls the provider; the caller has already taken an in-flight slot. */
+    private CompletableFuture<SendResult> start(NotificationPayload payload) {
+        long start = System.nanoTime();
+        CompletableFuture<SendResult> result;
+        try {
+            result = delegate.send(payload);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((r, e) -> finished(start, r, e));
+    }
+
+    private void finished(long start, SendResult result, Throwable error) {
+        long end = System.nanoTime();
+        List<Waiting> ready = new ArrayList<>();
+        lock.lock();
+        try {
+            limit.onSample(start, end, inFlight, outcome(result, error));
+            inFlight--;
+            while (!queue.isEmpty() && inFlight < limit.get()) {
+                inFlight++;
+                ready.add(queue.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Waiting waiting : ready) {
+            start(waiting.payload()).whenComplete((r, e) -> {
+                if (e != null) waiting.result().completeExceptionally(e);
+                else waiting.result().complete(r);
+            });
+        }
+    }
+
+    private static AdaptiveLimit.Outcome outcome(SendResult result, Throwable error) {
+        if (error != null || result.isThrottled()) {
+            return AdaptiveLimit.Outcome.DROPPED;
+        }
+        // A rejected message was answered normally; only provider failures feed the error rate
+        return result.success() || result.rejected() ? AdaptiveLimit.Outcome.SUCCESS : AdaptiveLimit.Outcome.FAILURE;
+    }
+
+    private int currentLimit() {
+        lock.lock();
+        try {
+            return limit.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Waiting(NotificationPayload payload, CompletableFuture<SendResult> result) {}
+}
@@ -0,0 +1,66 @@
+package com.example.notificationservice.channel.bulkhead;
+
+import com.example.notificationservice.channel.ChannelDecorator;
+import com.example.notificationservice.channel.NotificationChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Gives each channel its own bulkhead: an adaptive concurrency limit learned from the provider's
+ * latency and error rate, plus a bounded queue, so a slow provider holds up its own sends and not
+ * everyone else's. Sits inside the rate limiter, so the limit is learned from provider calls alone.
+ * <p>
+ * Settings are read from {@code notification.channels.<channel>.bulkhead.*} and fall back to
+ * {@code notification.bulkhead.*}: {@code enabled}, {@code initial-limit}, {@code min-limit},
+ * {@code max-limit}, {@code queue-capacity}, {@code backoff-ratio}, {@code max-error-rate} and
+ * {@code latency-window} (sends the long-run latency average spans).
+ */
+@Component
+@Order(50)
+public class ChannelBulkheads implements ChannelDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelBulkheads.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ChannelBulkheads(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public NotificationChannel decorate(NotificationChannel channel) {
+        String name = channel.getChannelType().name().toLowerCase(Locale.ROOT);
+        if (!setting(name, "enabled", Boolean.class, true)) {
+            return channel;
+        }
+        int initialLimit = setting(name, "initial-limit", Integer.class, 20);
+        int minLimit = setting(name, "min-limit", Integer.class, 1);
+        int maxLimit = setting(name, "max-limit", Integer.class, 500);
+        int queueCapacity = setting(name, "queue-capacity", Integer.class, 2000);
+        AdaptiveLimit limit = new AdaptiveLimit(
+            initialLimit,
+            minLimit,
+            maxLimit,
+            setting(name, "backoff-ratio", Double.class, 0.9),
+            setting(name, "max-error-rate", Double.class, 0.5),
+            setting(name, "latency-window", Integer.class, 500)
+        );
+        log.info("Bulkhead for {}: limit {} (adaptive {}-{}), queue {}", channel.getChannelType(), limit.get(),
+            minLimit, maxLimit, queueCapacity);
+        return new BulkheadChannel(channel, limit, queueCapacity, meterRegistry);
+    }
+
+    private <T> T setting(String channel, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("notification.channels." + channel + ".bulkhead." + key, type);
+        if (value != null) return value;
+        return environment.getProperty("notification.bulkhead." + key, type, defaultValue);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.notificationservice.channel.circuit;
+
+import com.example.notificationservice.channel.ChannelDecorator;
+import com.example.notificationservice.channel.NotificationChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Puts a {@link CircuitBreaker} around each channel. Outermost decorator: while a provider is down its
+ * sends are refused before they take a rate-limit slot or wait in the bulkhead, and the callers park
+ * them (see {@link com.example.notificationservice.channel.SendResult#unavailable}) until the breaker
+ * lets probes through again.
+ * <p>
+ * Settings are read from {@code notification.channels.<channel>.circuit-breaker.*} and fall back to
+ * {@code notification.circuit-breaker.*}: {@code enabled}, {@code window-size},
+ * {@code minimum-calls}, {@code failure-rate-threshold}, {@code open-duration} and
+ * {@code half-open-probes}.
+ */
+@Component
+@Order(200)
+public class ChannelCircuitBreakers implements ChannelDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelCircuitBreakers.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ChannelCircuitBreakers(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public NotificationChannel decorate(NotificationChannel channel) {
+        String name = channel.getChannelType().name().toLowerCase(Locale.ROOT);
+        if (!setting(name, "enabled", Boolean.class, true)) {
+            return channel;
+        }
+        int windowSize = setting(name, "window-size", Integer.class, 50);
+        double threshold = setting(name, "failure-rate-threshold", Double.class, 0.5);
+        Duration openDuration = setting(name, "open-duration", Duration.class, Duration.ofSeconds(5));
+        CircuitBreaker breaker = new CircuitBreaker(
+            windowSize,
+            setting(name, "minimum-calls", Integer.class, 20),
+            threshold,
+            openDuration.toNanos(),
+            setting(name, "half-open-probes", Integer.class, 3)
+        );
+        log.info("Circuit breaker for {}: opens at {}% failures over {} calls, for {}", channel.getChannelType(),
+            Math.round(threshold * 100), windowSize, openDuration);
+        return new CircuitBreakerChannel(channel, breaker, meterRegistry);
+    }
+
+    private <T> T setting(String channel, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("notification.channels." + channel + ".circuit-breaker." + key, type);
+        if (value != null) return value;
+        return environment.getProperty("notification.circuit-breaker." + key, type, defaultValue);
+    }
+}
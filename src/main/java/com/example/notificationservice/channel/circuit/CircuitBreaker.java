@@ -0,0 +1,121 @@
+package com.example.notificationservice.channel.circuit;
+
+/**
+ * Closed / open / half-open breaker over a sliding window of the last {@code windowSize} call outcomes.
+ * <ul>
+ *   <li>CLOSED: calls pass. Once at least {@code minimumCalls} outcomes are in the window and
+ *       {@code failureRateThreshold} of them failed, the breaker opens.</li>
+ *   <li>OPEN: calls are refused until {@code openNanos} have passed, then the breaker turns half-open.</li>
+ *   <li>HALF_OPEN: up to {@code probes} calls pass. A failed one reopens the breaker; once all of them
+ *       have succeeded it closes with an empty window.</li>
+ * </ul>
+ * Every transition starts a new generation, and outcomes of calls admitted in an earlier generation are
+ * ignored, so slow calls from before a trip cannot trip it again or close it early.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    /** Returned by {@link #tryAcquire} for a refused call. */
+    static final long REFUSED = -1;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int probes;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private int next;
+    private int recorded;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openNanos, int probes) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.probes = Math.max(1, probes);
+    }
+
+    /** Admits a call, returning its generation for {@link #onResult}, or {@link #REFUSED}. */
+    synchronized long tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return REFUSED;
+            }
+            transition(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= probes) {
+                return REFUSED;
+            }
+            probesStarted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Records the outcome of a call admitted in {@code callGeneration}. Returns the state the breaker
+     * moved to, or null if it stayed where it was.
+     */
+    synchronized State onResult(long callGeneration, boolean failed, long now) {
+        if (callGeneration != generation) {
+            return null;
+        }
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                return transition(State.OPEN, now);
+            }
+            return ++probesSucceeded >= probes ? transition(State.CLOSED, now) : null;
+        }
+        if (recorded == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failed;
+        next = (next + 1) % window.length;
+        recorded = Math.min(recorded + 1, window.length);
+        if (failed) {
+            failures++;
+        }
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            return transition(State.OPEN, now);
+        }
+        return null;
+    }
+
+    /** How long a call refused now should wait before trying again. */
+    synchronized long retryAfterNanos(long now) {
+        return state == State.OPEN ? Math.max(0, openNanos - (now - openedAt)) : openNanos;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    private State transition(State to, long now) {
+        state = to;
+        generation++;
+        switch (to) {
+            case OPEN -> openedAt = now;
+            case HALF_OPEN -> {
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            case CLOSED -> {
+                next = 0;
+                recorded = 0;
+                failures = 0;
+            }
+        }
+        return to;
+    }
+}
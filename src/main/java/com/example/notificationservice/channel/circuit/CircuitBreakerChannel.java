@@ -0,0 +1,89 @@
+package com.example.notificationservice.channel.circuit;
+
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends through a {@link CircuitBreaker}. A refused send completes at once with an
+ * {@link SendResult#unavailable unavailable} result saying when the breaker may let sends through
+ * again. Errors and provider failures (timeouts, connection errors, 5xx) count as failures. A 429 or
+ * a {@link SendResult#rejected rejected} message (bad token, malformed number) shows the provider is
+ * up and counts as a success.
+ */
+class CircuitBreakerChannel implements NotificationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerChannel.class);
+
+    private final NotificationChannel delegate;
+    private final CircuitBreaker breaker;
+    private final Counter rejected;
+
+    CircuitBreakerChannel(NotificationChannel delegate, CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        String channel = delegate.getChannelType().name();
+        this.rejected = Counter.builder("notification.circuit.rejected")
+            .description("Sends refused because the channel's circuit was open")
+            .tag("channel", channel)
+            .register(meterRegistry);
+        Gauge.builder("notification.circuit.state", breaker, b -> b.state().ordinal())
+            .description("Circuit state: 0 closed, 1 half-open, 2 open")
+            .tag("channel", channel)
+            .register(meterRegistry);
+        Gauge.builder("notification.circuit.failure-rate", breaker, CircuitBreaker::failureRate)
+            .description("Failure rate over the breaker's sliding window")
+            .tag("channel", channel)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderAccount() {
+        return delegate.getProviderAccount();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public CompletableFuture<SendResult> send(NotificationPayload payload) {
+        long generation = breaker.tryAcquire(System.nanoTime());
+        if (generation == CircuitBreaker.REFUSED) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(SendResult.unavailable(
+                "Circuit for " + getChannelType() + " is open",
+                Duration.ofNanos(breaker.retryAfterNanos(System.nanoTime()))));
+        }
+        CompletableFuture<SendResult> result;
+        try {
+            result = delegate.send(payload);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((r, e) -> {
+            boolean failed = e != null || (!r.success() && !r.isThrottled() && !r.rejected());
+            CircuitBreaker.State moved = breaker.onResult(generation, failed, System.nanoTime());
+            if (moved == CircuitBreaker.State.CLOSED) {
+                log.info("Circuit for {} closed: provider is answering again", getChannelType());
+            } else if (moved == CircuitBreaker.State.OPEN) {
+                log.warn("Circuit for {} opened: {}", getChannelType(), e != null ? e.getMessage() : r.errorMessage());
+            }
+        });
+    }
+}
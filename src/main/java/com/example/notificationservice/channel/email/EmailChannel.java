@@ -3,17 +3,40 @@ package com.example.notificationservice.channel.email;
 import com.example.notificationservice.channel.NotificationChannel;
 import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.channel.batch.MicroBatcher;
 import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Email over pooled SMTP sessions. Messages sent within {@code batch-window-ms} of each other are
+ * grouped (up to {@code batch-size}) and written back to back over one session from the
+ * {@link SmtpConnectionPool}, so connect, STARTTLS and AUTH are paid once per session rather than
+ * once per email. One sender thread runs per pooled connection.
+ */
 @Component
 @ConditionalOnProperty(name = "notification.channels.email.enabled", havingValue = "true", matchIfMissing = true)
 public class EmailChannel implements NotificationChannel {
@@ -23,10 +46,35 @@ public class EmailChannel implements NotificationChannel {
     @Value("${notification.channels.email.from:dummy-noreply@example.com}")
     private String fromAddress;
 
-    private final JavaMailSender mailSender;
+    private final JavaMailSenderImpl mailSender;
+    private final SmtpConnectionPool pool;
+    private final ExecutorService senders;
+    private final MicroBatcher<Outgoing> batcher;
+    private final DistributionSummary batchSize;
 
-    public EmailChannel(JavaMailSender mailSender) {
+    public EmailChannel(JavaMailSenderImpl mailSender,
+                        MeterRegistry meterRegistry,
+                        @Value("${notification.channels.email.pool.max-connections:4}") int maxConnections,
+                        @Value("${notification.channels.email.pool.validate-after:30s}") Duration validateAfter,
+                        @Value("${notification.channels.email.pool.max-idle:5m}") Duration maxIdle,
+                        @Value("${notification.channels.email.pool.max-messages-per-connection:1000}") int maxMessages,
+                        @Value("${notification.channels.email.pool.borrow-timeout:30s}") Duration borrowTimeout,
+                        @Value("${notification.channels.email.batch-size:50}") int maxBatchSize,
+                        @Value("${notification.channels.email.batch-window-ms:20}") long batchWindowMs) {
         this.mailSender = mailSender;
+        this.pool = new SmtpConnectionPool(mailSender, maxConnections, validateAfter, maxIdle, maxMessages,
+            borrowTimeout, meterRegistry);
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(maxConnections, r -> {
+            Thread t = new Thread(r, "smtp-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        new ExecutorServiceMetrics(senders, "smtp", List.of()).bindTo(meterRegistry);
+        this.batcher = new MicroBatcher<>("smtp", maxBatchSize, Duration.ofMillis(batchWindowMs), this::deliver, senders);
+        this.batchSize = DistributionSummary.builder("notification.smtp.batch.size")
+            .description("Emails written per SMTP session checkout")
+            .register(meterRegistry);
     }
 
     @Override
@@ -36,21 +84,88 @@ public class EmailChannel implements NotificationChannel {
 
     @Override
     public CompletableFuture<SendResult> send(NotificationPayload payload) {
-        return CompletableFuture.supplyAsync(() -> {
+        try {
+            MimeMessage msg = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(msg, StandardCharsets.UTF_8.name());
+            helper.setFrom(fromAddress);
+            helper.setTo(payload.recipient());
+            helper.setSubject(payload.subject() != null ? payload.subject() : "(No subject)");
+            helper.setText(payload.body());
+            msg.saveChanges();
+            Outgoing outgoing = new Outgoing(payload, msg, new CompletableFuture<>());
+            batcher.submit(outgoing);
+            return outgoing.result();
+        } catch (AddressException e) {
+            log.warn("Email send failed for {}: {}", payload.notificationId(), e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.rejected("Invalid address: " + e.getMessage()));
+        } catch (Exception e) {
+            log.warn("Email send failed for {}: {}", payload.notificationId(), e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.failure(e.getMessage()));
+        }
+    }
+
+    /**
+     * Sends one batch over as few sessions as possible: normally one, plus a fresh session for the
+     * remainder whenever the current one drops mid-batch.
+     */
+    private void deliver(List<Outgoing> batch) {
+        batchSize.record(batch.size());
+        int next = 0;
+        while (next < batch.size()) {
+            SmtpConnectionPool.Session session;
             try {
-                SimpleMailMessage msg = new SimpleMailMessage();
-                msg.setFrom(fromAddress);
-                msg.setTo(payload.recipient());
-                msg.setSubject(payload.subject() != null ? payload.subject() : "(No subject)");
-                msg.setText(payload.body());
-                mailSender.send(msg);
-                String externalId = "email-" + payload.notificationId();
-                log.debug("Email sent to {} for notification {}", payload.recipient(), payload.notificationId());
-                return SendResult.ok(externalId);
-            } catch (Exception e) {
-                log.warn("Email send failed for {}: {}", payload.notificationId(), e.getMessage());
-                return SendResult.failure(e.getMessage());
+                session = pool.borrow();
+            } catch (MessagingException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                String error = "SMTP connection failed: " + e.getMessage();
+                for (; next < batch.size(); next++) {
+                    fail(batch.get(next), SendResult.failure(error));
+                }
+                return;
             }
-        });
+            boolean broken = false;
+            try {
+                while (next < batch.size() && !broken) {
+                    Outgoing outgoing = batch.get(next++);
+                    try {
+                        session.transport.sendMessage(outgoing.message(), outgoing.message().getAllRecipients());
+                        session.sent++;
+                        log.debug("Email sent to {} for notification {}", outgoing.payload().recipient(),
+                            outgoing.payload().notificationId());
+                        outgoing.result().complete(SendResult.ok("email-" + outgoing.payload().notificationId()));
+                    } catch (MessagingException | RuntimeException e) {
+                        // A rejected message leaves the session usable; a dropped connection does not
+                        broken = !session.transport.isConnected();
+                        fail(outgoing, e instanceof SendFailedException && !broken
+                            ? SendResult.rejected(e.getMessage())
+                            : SendResult.failure(e.getMessage()));
+                    }
+                }
+            } finally {
+                pool.release(session, broken);
+            }
+        }
     }
+
+    private static void fail(Outgoing outgoing, SendResult result) {
+        log.warn("Email send failed for {}: {}", outgoing.payload().notificationId(), result.errorMessage());
+        outgoing.result().complete(result);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.channels.email.pool.evict-interval-ms:30000}")
+    public void evictIdleConnections() {
+        pool.evictIdle();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        batcher.close();
+        senders.shutdown();
+        senders.awaitTermination(30, TimeUnit.SECONDS);
+        pool.close();
+    }
+
+    private record Outgoing(NotificationPayload payload, MimeMessage message, CompletableFuture<SendResult> result) {}
 }
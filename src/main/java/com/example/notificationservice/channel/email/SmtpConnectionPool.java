@@ -0,0 +1,167 @@
+package com.example.notificationservice.channel.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded set of connected (and, where configured, STARTTLS'd and authenticated) SMTP sessions.
+ * At most {@code maxConnections} are open at once, which is what the relay limits. Sessions are
+ * reused most-recently-returned first, so spare ones go idle and are closed after {@code maxIdle}.
+ * A session idle for longer than {@code validateAfter} is checked with a NOOP before it is handed
+ * out, and a session is retired after {@code maxMessages} messages, since relays cap those too.
+ */
+class SmtpConnectionPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore permits;
+    private final BlockingDeque<Session> idle = new LinkedBlockingDeque<>();
+    private final long validateAfterNanos;
+    private final long maxIdleNanos;
+    private final int maxMessages;
+    private final Duration borrowTimeout;
+    private final Counter opened;
+    private final Counter discarded;
+    private volatile boolean closed;
+
+    SmtpConnectionPool(JavaMailSenderImpl mailSender, int maxConnections, Duration validateAfter, Duration maxIdle,
+                       int maxMessages, Duration borrowTimeout, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.permits = new Semaphore(maxConnections, true);
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.maxMessages = maxMessages;
+        this.borrowTimeout = borrowTimeout;
+        this.opened = Counter.builder("notification.smtp.connections.opened")
+            .description("SMTP sessions opened (connect, STARTTLS and AUTH)")
+            .register(meterRegistry);
+        this.discarded = Counter.builder("notification.smtp.connections.discarded")
+            .description("SMTP sessions closed because they failed a check, broke, expired or were used up")
+            .register(meterRegistry);
+        Gauge.builder("notification.smtp.connections", permits, p -> maxConnections - p.availablePermits())
+            .description("SMTP sessions in use")
+            .tag("state", "active")
+            .register(meterRegistry);
+        Gauge.builder("notification.smtp.connections", idle, BlockingDeque::size)
+            .description("SMTP sessions open and idle")
+            .tag("state", "idle")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns a connected session, opening one if no idle session is usable. Blocks while all
+     * {@code maxConnections} are in use, up to the borrow timeout.
+     */
+    Session borrow() throws MessagingException, InterruptedException {
+        if (closed) {
+            throw new MessagingException("SMTP pool is closed");
+        }
+        if (!permits.tryAcquire(borrowTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new MessagingException("No SMTP connection available within " + borrowTimeout.toMillis() + "ms");
+        }
+        try {
+            Session session;
+            while ((session = idle.pollFirst()) != null) {
+                if (usable(session)) {
+                    return session;
+                }
+                discard(session);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Hands a session back. A broken session is closed, freeing its slot for a fresh connection. */
+    void release(Session session, boolean broken) {
+        try {
+            if (broken || closed || session.sent >= maxMessages) {
+                discard(session);
+            } else {
+                session.lastUsed = System.nanoTime();
+                idle.offerFirst(session);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Closes sessions that have sat unused longer than {@code maxIdle}; the least recently used are at the tail. */
+    void evictIdle() {
+        Session session;
+        while ((session = idle.peekLast()) != null && System.nanoTime() - session.lastUsed > maxIdleNanos) {
+            if (idle.removeLastOccurrence(session)) {
+                discard(session);
+            }
+        }
+    }
+
+    private boolean usable(Session session) {
+        if (System.nanoTime() - session.lastUsed > maxIdleNanos) {
+            return false;
+        }
+        // isConnected() issues a NOOP, so only pay for it when the session may have been dropped
+        return System.nanoTime() - session.lastUsed <= validateAfterNanos || session.transport.isConnected();
+    }
+
+    private Session open() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        opened.increment();
+        log.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new Session(transport);
+    }
+
+    private void discard(Session session) {
+        discarded.increment();
+        try {
+            session.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Session session;
+        while ((session = idle.pollFirst()) != null) {
+            discard(session);
+        }
+    }
+
+    /** One open SMTP connection and how much it has been used. */
+    static final class Session {
+
+        final Transport transport;
+        long lastUsed = System.nanoTime();
+        int sent;
+
+        private Session(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.notificationservice.channel.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking HTTP client for a single provider. Each instance owns its own connection pool, so a
+ * slow or flaky provider never holds connections another provider needs.
+ */
+public class ProviderHttpClient {
+
+    private final String provider;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    ProviderHttpClient(String provider, HttpClient httpClient, Duration readTimeout) {
+        this.provider = provider;
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * POST the body and complete with the response once it has been read; no thread is parked while
+     * the provider is working. The future completes exceptionally on connect/read timeout.
+     */
+    public CompletableFuture<HttpResponse<String>> post(String url, String contentType,
+                                                        Map<String, String> headers, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(readTimeout)
+            .header("Content-Type", contentType)
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        headers.forEach(request::header);
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Provider's Retry-After hint (delta-seconds or HTTP-date), or {@link Duration#ZERO} if absent.
+     */
+    public static Duration retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After").map(value -> {
+            try {
+                return Duration.ofSeconds(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    Instant at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    Duration delay = Duration.between(Instant.now(), at);
+                    return delay.isNegative() ? Duration.ZERO : delay;
+                } catch (DateTimeParseException ignored) {
+                    return Duration.ZERO;
+                }
+            }
+        }).orElse(Duration.ZERO);
+    }
+
+    /**
+     * Whether a status turns the request down for good: a 4xx other than 408 (timed out) and 429
+     * (throttled). The provider is up; sending the same request again will not change the answer.
+     */
+    public static boolean isRejection(int statusCode) {
+        return statusCode / 100 == 4 && statusCode != 408 && statusCode != 429;
+    }
+
+    /**
+     * Message for a failed future, unwrapping the CompletionException the async API wraps it in.
+     */
+    public static String errorMessage(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    public String getProvider() { return provider; }
+}
@@ -0,0 +1,81 @@
+package com.example.notificationservice.channel.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTTP transport for provider channels. Hands out one {@link ProviderHttpClient} per provider,
+ * each backed by its own HTTP/2-capable (ALPN, falling back to HTTP/1.1) keep-alive connection pool.
+ * <p>
+ * Settings are read from {@code notification.channels.<provider>.http.*} and fall back to
+ * {@code notification.http.*}: {@code connect-timeout}, {@code read-timeout} and
+ * {@code executor-threads} (threads that complete response futures; sockets are multiplexed by the
+ * client's selector, not held by these threads).
+ */
+@Component
+public class ProviderHttpTransport {
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(10);
+    private static final int DEFAULT_EXECUTOR_THREADS = 4;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ProviderHttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    public ProviderHttpTransport(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ProviderHttpClient client(String provider) {
+        return clients.computeIfAbsent(provider, this::create);
+    }
+
+    private ProviderHttpClient create(String provider) {
+        Duration connectTimeout = setting(provider, "connect-timeout", Duration.class, DEFAULT_CONNECT_TIMEOUT);
+        Duration readTimeout = setting(provider, "read-timeout", Duration.class, DEFAULT_READ_TIMEOUT);
+        int threads = setting(provider, "executor-threads", Integer.class, DEFAULT_EXECUTOR_THREADS);
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "http-" + provider + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executors.put(provider, executor);
+        new ExecutorServiceMetrics(executor, "http-" + provider, List.of()).bindTo(meterRegistry);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(executor)
+            .build();
+        return new ProviderHttpClient(provider, httpClient, readTimeout);
+    }
+
+    private <T> T setting(String provider, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("notification.channels." + provider + ".http." + key, type);
+        if (value != null) return value;
+        return environment.getProperty("notification.http." + key, type, defaultValue);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+}
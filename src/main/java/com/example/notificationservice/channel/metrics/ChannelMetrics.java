@@ -0,0 +1,28 @@
+package com.example.notificationservice.channel.metrics;
+
+import com.example.notificationservice.channel.ChannelDecorator;
+import com.example.notificationservice.channel.NotificationChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every provider call as {@code notification.channel.send}, tagged by channel and outcome
+ * ({@code success}, {@code failure}, {@code throttled}, {@code error} for exceptions). Innermost
+ * decorator, so the timer measures the provider alone and not time spent waiting on rate limits.
+ */
+@Component
+@Order(0)
+public class ChannelMetrics implements ChannelDecorator {
+
+    private final MeterRegistry meterRegistry;
+
+    public ChannelMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public NotificationChannel decorate(NotificationChannel channel) {
+        return new MeteredChannel(channel, meterRegistry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.notificationservice.channel.metrics;
+
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency and outcome of each send. Timers are resolved once per channel, not per call.
+ */
+class MeteredChannel implements NotificationChannel {
+
+    private final NotificationChannel delegate;
+    private final Timer success;
+    private final Timer failure;
+    private final Timer throttled;
+    private final Timer rejected;
+    private final Timer error;
+
+    MeteredChannel(NotificationChannel delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.success = timer(meterRegistry, "success");
+        this.failure = timer(meterRegistry, "failure");
+        this.throttled = timer(meterRegistry, "throttled");
+        this.rejected = timer(meterRegistry, "rejected");
+        this.error = timer(meterRegistry, "error");
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("notification.channel.send")
+            .description("Provider send latency")
+            .tag("channel", delegate.getChannelType().name())
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderAccount() {
+        return delegate.getProviderAccount();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public CompletableFuture<SendResult> send(NotificationPayload payload) {
+        long start = System.nanoTime();
+        try {
+            return delegate.send(payload).whenComplete((result, e) ->
+                timerFor(result, e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        } catch (RuntimeException e) {
+            error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timerFor(SendResult result, Throwable e) {
+        if (e != null) return error;
+        if (result.success()) return success;
+        if (result.rejected()) return rejected;
+        return result.isThrottled() ? throttled : failure;
+    }
+}
@@ -3,20 +3,42 @@ package com.example.notificationservice.channel.push;
 import com.example.notificationservice.channel.NotificationChannel;
 import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.channel.batch.MicroBatcher;
+import com.example.notificationservice.channel.http.ProviderHttpClient;
+import com.example.notificationservice.channel.http.ProviderHttpTransport;
 import com.example.notificationservice.domain.ChannelType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Push notifications via FCM (Firebase Cloud Messaging). Uses dummy server key for development.
+ * <p>
+ * Sends with the same title and body arriving within {@code batch-window-ms} are grouped (up to
+ * {@code batch-size}, FCM's multicast limit being 1000 tokens) and posted as one multicast request;
+ * FCM answers with one result per token, in request order, which completes each notification's send.
+ * <p>
+ * The rate limiter and bulkhead in front of this channel see one send per token, so for push their
+ * units are device tokens (per second, and in flight), not HTTP requests; a multicast of n tokens
+ * holds n permits. That matches FCM, which also counts its quota per token.
  */
 @Component
 @ConditionalOnProperty(name = "notification.channels.push.enabled", havingValue = "true", matchIfMissing = true)
@@ -24,13 +46,34 @@ public class PushChannel implements NotificationChannel {
 
     private static final Logger log = LoggerFactory.getLogger(PushChannel.class);
 
+    static final int FCM_MULTICAST_LIMIT = 1000;
+
+    /** Per-token FCM errors worth retrying; every other one rejects the token or the message for good. */
+    private static final Set<String> TRANSIENT_ERRORS = Set.of("Unavailable", "InternalServerError");
+
     @Value("${notification.channels.push.fcm-server-key:dummy-fcm-server-key}")
     private String fcmServerKey;
 
     @Value("${notification.channels.push.fcm-url:https://fcm.googleapis.com/fcm/send}")
     private String fcmUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ProviderHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final MicroBatcher<Pending> batcher;
+    private final DistributionSummary batchSize;
+
+    public PushChannel(ProviderHttpTransport transport, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${notification.channels.push.batch-size:500}") int maxBatchSize,
+                       @Value("${notification.channels.push.batch-window-ms:10}") long batchWindowMs) {
+        this.httpClient = transport.client("push");
+        this.objectMapper = objectMapper;
+        // The handler only builds the request and hands it to the async HTTP client, so it runs inline
+        this.batcher = new MicroBatcher<>("push", Math.min(maxBatchSize, FCM_MULTICAST_LIMIT),
+            Duration.ofMillis(batchWindowMs), Pending::content, this::sendMulticast, Runnable::run);
+        this.batchSize = DistributionSummary.builder("notification.push.batch.size")
+            .description("Device tokens per FCM request")
+            .register(meterRegistry);
+    }
 
     @Override
     public ChannelType getChannelType() {
@@ -39,31 +82,101 @@ public class PushChannel implements NotificationChannel {
 
     @Override
     public CompletableFuture<SendResult> send(NotificationPayload payload) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.set("Authorization", "key=" + fcmServerKey);
-                Map<String, Object> body = Map.of(
-                    "to", payload.recipient(),
-                    "notification", Map.of(
-                        "title", payload.subject() != null ? payload.subject() : "Notification",
-                        "body", payload.body()
-                    )
-                );
-                HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-                ResponseEntity<String> response = restTemplate.exchange(fcmUrl, HttpMethod.POST, entity, String.class);
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    String externalId = "push-" + payload.notificationId();
-                    log.debug("Push sent to {} for notification {}", payload.recipient(), payload.notificationId());
-                    return SendResult.ok(externalId);
-                } else {
-                    return SendResult.failure("FCM returned " + response.getStatusCode());
-                }
-            } catch (Exception e) {
-                log.warn("Push send failed for {}: {}", payload.notificationId(), e.getMessage());
-                return SendResult.failure(e.getMessage());
+        try {
+            Content content = new Content(payload.subject() != null ? payload.subject() : "Notification", payload.body());
+            Pending pending = new Pending(payload, content, new CompletableFuture<>());
+            batcher.submit(pending);
+            return pending.result();
+        } catch (Exception e) {
+            log.warn("Push send failed for {}: {}", payload.notificationId(), e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.failure(e.getMessage()));
+        }
+    }
+
+    private void sendMulticast(List<Pending> batch) {
+        batchSize.record(batch.size());
+        try {
+            List<String> tokens = new ArrayList<>(batch.size());
+            for (Pending p : batch) {
+                tokens.add(p.payload().recipient());
+            }
+            Content content = batch.get(0).content();
+            Map<String, Object> body = Map.of(
+                "registration_ids", tokens,
+                "notification", Map.of(
+                    "title", content.title(),
+                    "body", content.body()
+                )
+            );
+            httpClient.post(fcmUrl, MediaType.APPLICATION_JSON_VALUE,
+                    Map.of(HttpHeaders.AUTHORIZATION, "key=" + fcmServerKey), objectMapper.writeValueAsString(body))
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        completeAll(batch, SendResult.failure(ProviderHttpClient.errorMessage(e)));
+                    } else {
+                        complete(batch, response);
+                    }
+                });
+        } catch (Exception e) {
+            completeAll(batch, SendResult.failure(e.getMessage()));
+        }
+    }
+
+    private void complete(List<Pending> batch, HttpResponse<String> response) {
+        if (response.statusCode() == 429) {
+            completeAll(batch, SendResult.throttled("FCM returned 429", ProviderHttpClient.retryAfter(response)));
+            return;
+        }
+        if (ProviderHttpClient.isRejection(response.statusCode())) {
+            completeAll(batch, SendResult.rejected("FCM returned " + response.statusCode()));
+            return;
+        }
+        if (response.statusCode() / 100 != 2) {
+            completeAll(batch, SendResult.failure("FCM returned " + response.statusCode()));
+            return;
+        }
+        JsonNode results;
+        try {
+            results = objectMapper.readTree(response.body()).path("results");
+        } catch (Exception e) {
+            results = MissingNode.getInstance();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            // Without per-token results the 2xx covers the whole request
+            String error = results.path(i).path("error").asText(null);
+            if (error == null) {
+                log.debug("Push sent to {} for notification {}", p.payload().recipient(), p.payload().notificationId());
+                p.result().complete(SendResult.ok("push-" + p.payload().notificationId()));
+            } else if (TRANSIENT_ERRORS.contains(error)) {
+                fail(p, SendResult.failure("FCM error: " + error));
+            } else {
+                // Bad or stale token, oversized payload and the like: this message will never go through
+                fail(p, SendResult.rejected("FCM error: " + error));
             }
-        });
+        }
     }
+
+    private static void completeAll(List<Pending> batch, SendResult result) {
+        for (Pending p : batch) {
+            if (!result.success()) {
+                log.warn("Push send failed for {}: {}", p.payload().notificationId(), result.errorMessage());
+            }
+            p.result().complete(result);
+        }
+    }
+
+    private static void fail(Pending p, SendResult result) {
+        log.warn("Push send failed for {}: {}", p.payload().notificationId(), result.errorMessage());
+        p.result().complete(result);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batcher.close();
+    }
+
+    private record Content(String title, String body) {}
+
+    private record Pending(NotificationPayload payload, Content content, CompletableFuture<SendResult> result) {}
 }
@@ -0,0 +1,125 @@
+package com.example.notificationservice.channel.ratelimit;
+
+import com.example.notificationservice.channel.ChannelDecorator;
+import com.example.notificationservice.channel.NotificationChannel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts a token bucket in front of each channel that configures one, plus an optional bucket per
+ * provider account. An account bucket is shared by every channel sending as that account, so their
+ * sends together stay within the provider's account limit; the first channel to configure it sets
+ * its rate.
+ * <pre>
+ * notification.channels.&lt;channel&gt;.rate-limit:
+ *   permits-per-second: 50      # channel-wide; 0 or absent disables limiting
+ *   burst: 50
+ *   account-permits-per-second: 10   # per provider account (optional)
+ *   account-burst: 10
+ * notification.rate-limit:
+ *   max-wait-ms, min-rate, decrease-factor, increase-per-success   # shared tuning
+ * </pre>
+ */
+@Component
+@Order(100)
+public class ChannelRateLimiters implements ChannelDecorator {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelRateLimiters.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "rate-limiter");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<TokenBucket> buckets = new ArrayList<>();
+    private final Map<String, TokenBucket> accountBuckets = new HashMap<>();
+
+    public ChannelRateLimiters(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        // Queue size of the scheduler = sends currently held back waiting for a slot
+        new ExecutorServiceMetrics(scheduler, "rate-limiter", List.of()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public NotificationChannel decorate(NotificationChannel channel) {
+        String prefix = "notification.channels." + channel.getChannelType().name().toLowerCase(Locale.ROOT) + ".rate-limit.";
+        List<TokenBucket> channelBuckets = new ArrayList<>(2);
+
+        double rate = environment.getProperty(prefix + "permits-per-second", Double.class, 0.0);
+        if (rate > 0) {
+            int burst = environment.getProperty(prefix + "burst", Integer.class, (int) Math.ceil(rate));
+            channelBuckets.add(bucket(channel.getChannelType().name(), rate, burst));
+        }
+        double accountRate = environment.getProperty(prefix + "account-permits-per-second", Double.class, 0.0);
+        if (accountRate > 0) {
+            int burst = environment.getProperty(prefix + "account-burst", Integer.class, (int) Math.ceil(accountRate));
+            channelBuckets.add(accountBucket(channel, accountRate, burst));
+        }
+        if (channelBuckets.isEmpty()) {
+            return channel;
+        }
+        long maxWaitMs = environment.getProperty("notification.rate-limit.max-wait-ms", Long.class, 30_000L);
+        log.info("Rate limiting {} with {}", channel.getChannelType(),
+            channelBuckets.stream().map(b -> b.getName() + "@" + b.getMaxRate() + "/s").toList());
+        return new RateLimitedChannel(channel, channelBuckets, scheduler, TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+    }
+
+    private TokenBucket accountBucket(NotificationChannel channel, double rate, int burst) {
+        String account = channel.getProviderAccount();
+        TokenBucket shared = accountBuckets.get(account);
+        if (shared == null) {
+            shared = bucket("account:" + account, rate, burst);
+            accountBuckets.put(account, shared);
+        } else if (shared.getMaxRate() != rate) {
+            log.warn("{} configures {}/s for account {}, which already has a bucket of {}/s; using that",
+                channel.getChannelType(), rate, account, shared.getMaxRate());
+        }
+        return shared;
+    }
+
+    private TokenBucket bucket(String name, double rate, int burst) {
+        TokenBucket bucket = new TokenBucket(
+            name,
+            rate,
+            burst,
+            environment.getProperty("notification.rate-limit.min-rate", Double.class, 1.0),
+            environment.getProperty("notification.rate-limit.decrease-factor", Double.class, 0.5),
+            environment.getProperty("notification.rate-limit.increase-per-success", Double.class, rate / 100)
+        );
+        buckets.add(bucket);
+        Gauge.builder("notification.ratelimit.rate", bucket, TokenBucket::getRate)
+            .description("Current adaptive send rate")
+            .tag("bucket", name)
+            .baseUnit("permits/s")
+            .register(meterRegistry);
+        return bucket;
+    }
+
+    public List<TokenBucket> getBuckets() {
+        return List.copyOf(buckets);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.notificationservice.channel.ratelimit;
+
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.domain.ChannelType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends through the channel's token buckets. A caller that finds the buckets empty is not failed: its
+ * send is scheduled for the reserved slot and the returned future completes when it has gone out.
+ * Only a wait longer than {@code maxWaitNanos} is handed back as a throttled result, and then no bucket
+ * keeps a slot for it: a permit is only taken from every bucket or from none.
+ */
+class RateLimitedChannel implements NotificationChannel {
+
+    private final NotificationChannel delegate;
+    private final List<TokenBucket> buckets;
+    private final ScheduledExecutorService scheduler;
+    private final long maxWaitNanos;
+
+    RateLimitedChannel(NotificationChannel delegate, List<TokenBucket> buckets,
+                       ScheduledExecutorService scheduler, long maxWaitNanos) {
+        this.delegate = delegate;
+        this.buckets = buckets;
+        this.scheduler = scheduler;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderAccount() {
+        return delegate.getProviderAccount();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public CompletableFuture<SendResult> send(NotificationPayload payload) {
+        long wait = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            long bucketWait = buckets.get(i).tryReserve(maxWaitNanos);
+            if (bucketWait < 0) {
+                for (int j = 0; j < i; j++) {
+                    buckets.get(j).cancel();
+                }
+                return CompletableFuture.completedFuture(SendResult.throttled(
+                    "Rate limit queue for " + getChannelType() + " exceeds " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms",
+                    Duration.ofNanos(buckets.get(i).waitNanos())));
+            }
+            wait = Math.max(wait, bucketWait);
+        }
+        if (wait == 0) {
+            return sendNow(payload);
+        }
+        CompletableFuture<SendResult> result = new CompletableFuture<>();
+        scheduler.schedule(() -> sendNow(payload).whenComplete((r, e) -> {
+            if (e != null) result.completeExceptionally(e);
+            else result.complete(r);
+        }), wait, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private CompletableFuture<SendResult> sendNow(NotificationPayload payload) {
+        return delegate.send(payload).thenApply(result -> {
+            if (result.isThrottled()) {
+                buckets.forEach(b -> b.onThrottled(result.retryAfter()));
+            } else if (result.success()) {
+                buckets.forEach(TokenBucket::onSuccess);
+            }
+            return result;
+        });
+    }
+}
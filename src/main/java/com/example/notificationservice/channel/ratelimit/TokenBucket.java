@@ -0,0 +1,107 @@
+package com.example.notificationservice.channel.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time"
+ * advanced by CAS, so acquiring a permit is a few atomic operations with no lock or refill thread.
+ * <p>
+ * {@link #tryReserve} books the next free slot and returns how long the caller must wait for it, unless
+ * that wait exceeds the caller's limit: then nothing is booked, so a rejected caller does not push
+ * later ones further out. The rate adapts to provider feedback: a throttle response cuts it multiplicatively and
+ * pushes the next slot past Retry-After; successes then step it back up towards the configured rate.
+ */
+public class TokenBucket {
+
+    private final String name;
+    private final double maxRate;
+    private final double minRate;
+    private final int burst;
+    private final double decreaseFactor;
+    private final double increasePerSuccess;
+
+    /** Nanos (System.nanoTime scale) at which the bucket is next fully drained. */
+    private final AtomicLong theoreticalArrival;
+    private volatile double rate;
+
+    public TokenBucket(String name, double permitsPerSecond, int burst, double minRate,
+                       double decreaseFactor, double increasePerSuccess) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+        this.name = name;
+        this.maxRate = permitsPerSecond;
+        this.minRate = Math.min(Math.max(minRate, 0.01), permitsPerSecond);
+        this.burst = Math.max(1, burst);
+        this.decreaseFactor = decreaseFactor;
+        this.increasePerSuccess = increasePerSuccess;
+        this.rate = permitsPerSecond;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take a permit if it can be used within {@code maxWaitNanos}, returning the nanos until it may be
+     * used (0 if available now), or -1 without taking anything if the wait would be longer.
+     */
+    public long tryReserve(long maxWaitNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long interval = intervalNanos();
+            long tolerance = (burst - 1) * interval;
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, now);
+            long wait = Math.max(0, start - tolerance - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + interval)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Hand back a permit taken by {@link #tryReserve} that will not be used after all, e.g. because
+     * another bucket on the same send refused.
+     */
+    public void cancel() {
+        long interval = intervalNanos();
+        theoreticalArrival.accumulateAndGet(interval, (tat, i) -> tat - i);
+    }
+
+    /**
+     * Nanos a permit taken now would have to wait, without taking it.
+     */
+    public long waitNanos() {
+        long now = System.nanoTime();
+        long tolerance = (burst - 1) * intervalNanos();
+        return Math.max(0, Math.max(theoreticalArrival.get(), now) - tolerance - now);
+    }
+
+    /**
+     * Provider signalled throttling: shrink the rate and hold new permits until Retry-After elapses.
+     */
+    public void onThrottled(Duration retryAfter) {
+        rate = Math.max(minRate, rate * decreaseFactor);
+        long pause = retryAfter != null ? retryAfter.toNanos() : 0;
+        // Offset by the burst tolerance so no permit is granted before Retry-After has passed
+        long until = System.nanoTime() + pause + (burst - 1) * intervalNanos();
+        theoreticalArrival.accumulateAndGet(until, Math::max);
+    }
+
+    public void onSuccess() {
+        double current = rate;
+        if (current < maxRate) {
+            rate = Math.min(maxRate, current + increasePerSuccess);
+        }
+    }
+
+    private long intervalNanos() {
+        return (long) (1_000_000_000L / rate);
+    }
+
+    public String getName() { return name; }
+
+    public double getRate() { return rate; }
+
+    public double getMaxRate() { return maxRate; }
+}
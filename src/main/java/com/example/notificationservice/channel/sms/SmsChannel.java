@@ -3,15 +3,21 @@ package com.example.notificationservice.channel.sms;
 import com.example.notificationservice.channel.NotificationChannel;
 import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.channel.http.ProviderHttpClient;
+import com.example.notificationservice.channel.http.ProviderHttpTransport;
 import com.example.notificationservice.domain.ChannelType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -35,35 +41,57 @@ public class SmsChannel implements NotificationChannel {
     @Value("${notification.channels.sms.api-url:https://api.twilio.com/2010-04-01/Accounts}")
     private String apiUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ProviderHttpClient httpClient;
+
+    public SmsChannel(ProviderHttpTransport transport) {
+        this.httpClient = transport.client("sms");
+    }
 
     @Override
     public ChannelType getChannelType() {
         return ChannelType.SMS;
     }
 
+    @Override
+    public String getProviderAccount() {
+        return accountSid;
+    }
+
     @Override
     public CompletableFuture<SendResult> send(NotificationPayload payload) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String url = apiUrl + "/" + accountSid + "/Messages.json";
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-                headers.setBasicAuth(accountSid, authToken);
-                String body = "To=" + payload.recipient() + "&From=" + fromNumber + "&Body=" + payload.body();
-                HttpEntity<String> entity = new HttpEntity<>(body, headers);
-                ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    String externalId = "sms-" + payload.notificationId();
-                    log.debug("SMS sent to {} for notification {}", payload.recipient(), payload.notificationId());
-                    return SendResult.ok(externalId);
-                } else {
-                    return SendResult.failure("SMS API returned " + response.getStatusCode());
-                }
-            } catch (Exception e) {
-                log.warn("SMS send failed for {}: {}", payload.notificationId(), e.getMessage());
-                return SendResult.failure(e.getMessage());
-            }
-        });
+        try {
+            String url = apiUrl + "/" + accountSid + "/Messages.json";
+            String credentials = Base64.getEncoder()
+                .encodeToString((accountSid + ":" + authToken).getBytes(StandardCharsets.UTF_8));
+            String body = "To=" + encode(payload.recipient()) + "&From=" + encode(fromNumber) + "&Body=" + encode(payload.body());
+            return httpClient.post(url, MediaType.APPLICATION_FORM_URLENCODED_VALUE,
+                    Map.of(HttpHeaders.AUTHORIZATION, "Basic " + credentials), body)
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 == 2) {
+                        String externalId = "sms-" + payload.notificationId();
+                        log.debug("SMS sent to {} for notification {}", payload.recipient(), payload.notificationId());
+                        return SendResult.ok(externalId);
+                    }
+                    if (response.statusCode() == 429) {
+                        return SendResult.throttled("SMS API returned 429", ProviderHttpClient.retryAfter(response));
+                    }
+                    if (ProviderHttpClient.isRejection(response.statusCode())) {
+                        return SendResult.rejected("SMS API returned " + response.statusCode());
+                    }
+                    return SendResult.failure("SMS API returned " + response.statusCode());
+                })
+                .exceptionally(e -> {
+                    String error = ProviderHttpClient.errorMessage(e);
+                    log.warn("SMS send failed for {}: {}", payload.notificationId(), error);
+                    return SendResult.failure(error);
+                });
+        } catch (Exception e) {
+            log.warn("SMS send failed for {}: {}", payload.notificationId(), e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.failure(e.getMessage()));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8);
     }
 }
@@ -3,14 +3,17 @@ package com.example.notificationservice.channel.whatsapp;
 import com.example.notificationservice.channel.NotificationChannel;
 import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.channel.http.ProviderHttpClient;
+import com.example.notificationservice.channel.http.ProviderHttpTransport;
 import com.example.notificationservice.domain.ChannelType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -33,40 +36,58 @@ public class WhatsAppChannel implements NotificationChannel {
     @Value("${notification.channels.whatsapp.api-url:https://graph.facebook.com/v18.0}")
     private String apiUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ProviderHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public WhatsAppChannel(ProviderHttpTransport transport, ObjectMapper objectMapper) {
+        this.httpClient = transport.client("whatsapp");
+        this.objectMapper = objectMapper;
+    }
 
     @Override
     public ChannelType getChannelType() {
         return ChannelType.WHATSAPP;
     }
 
+    @Override
+    public String getProviderAccount() {
+        return phoneNumberId;
+    }
+
     @Override
     public CompletableFuture<SendResult> send(NotificationPayload payload) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String url = apiUrl + "/" + phoneNumberId + "/messages";
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.setBearerAuth(accessToken);
-                Map<String, Object> body = Map.of(
-                    "messaging_product", "whatsapp",
-                    "to", payload.recipient().replaceAll("[^0-9]", ""),
-                    "type", "text",
-                    "text", Map.of("body", payload.body())
-                );
-                HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-                ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-                if (response.getStatusCode().is2xxSuccessful()) {
-                    String externalId = "wa-" + payload.notificationId();
-                    log.debug("WhatsApp sent to {} for notification {}", payload.recipient(), payload.notificationId());
-                    return SendResult.ok(externalId);
-                } else {
-                    return SendResult.failure("WhatsApp API returned " + response.getStatusCode());
-                }
-            } catch (Exception e) {
-                log.warn("WhatsApp send failed for {}: {}", payload.notificationId(), e.getMessage());
-                return SendResult.failure(e.getMessage());
-            }
-        });
+        try {
+            String url = apiUrl + "/" + phoneNumberId + "/messages";
+            Map<String, Object> body = Map.of(
+                "messaging_product", "whatsapp",
+                "to", payload.recipient().replaceAll("[^0-9]", ""),
+                "type", "text",
+                "text", Map.of("body", payload.body())
+            );
+            return httpClient.post(url, MediaType.APPLICATION_JSON_VALUE,
+                    Map.of(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken), objectMapper.writeValueAsString(body))
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 == 2) {
+                        String externalId = "wa-" + payload.notificationId();
+                        log.debug("WhatsApp sent to {} for notification {}", payload.recipient(), payload.notificationId());
+                        return SendResult.ok(externalId);
+                    }
+                    if (response.statusCode() == 429) {
+                        return SendResult.throttled("WhatsApp API returned 429", ProviderHttpClient.retryAfter(response));
+                    }
+                    if (ProviderHttpClient.isRejection(response.statusCode())) {
+                        return SendResult.rejected("WhatsApp API returned " + response.statusCode());
+                    }
+                    return SendResult.failure("WhatsApp API returned " + response.statusCode());
+                })
+                .exceptionally(e -> {
+                    String error = ProviderHttpClient.errorMessage(e);
+                    log.warn("WhatsApp send failed for {}: {}", payload.notificationId(), error);
+                    return SendResult.failure(error);
+                });
+        } catch (Exception e) {
+            log.warn("WhatsApp send failed for {}: {}", payload.notificationId(), e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.failure(e.getMessage()));
+        }
     }
 }
@@ -18,7 +18,8 @@ public class CacheConfig {
         CaffeineCacheManager manager = new CaffeineCacheManager("templates");
         manager.setCaffeine(Caffeine.newBuilder()
             .expireAfterWrite(10, TimeUnit.MINUTES)
-            .maximumSize(500));
+            .maximumSize(500)
+            .recordStats());
         return manager;
     }
 }
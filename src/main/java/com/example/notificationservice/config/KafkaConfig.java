@@ -1,8 +1,15 @@
 package com.example.notificationservice.config;
 
+import com.example.notificationservice.messaging.KeyOrderedProcessor;
 import com.example.notificationservice.messaging.NotificationEvent;
+import com.example.notificationservice.messaging.NotificationEventDeserializer;
+import com.example.notificationservice.messaging.NotificationEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,9 +18,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,13 +37,59 @@ public class KafkaConfig {
     @Value("${notification.kafka.consumer-group:notification-service}")
     private String consumerGroup;
 
+    @Value("${notification.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${notification.kafka.producer.batch-size:262144}")
+    private int producerBatchSize;
+
+    @Value("${notification.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    /** {@code json} or {@code binary}; consumers read both, so switch only after they are all upgraded. */
+    @Value("${notification.kafka.producer.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${notification.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${notification.kafka.concurrency:1}")
+    private int concurrency;
+
+    @Value("${notification.kafka.idle-commit-interval:1s}")
+    private Duration idleCommitInterval;
+
+    private final MeterRegistry meterRegistry;
+    private final KeyOrderedProcessor processor;
+
+    public KafkaConfig(MeterRegistry meterRegistry, KeyOrderedProcessor processor) {
+        this.meterRegistry = meterRegistry;
+        this.processor = processor;
+    }
+
     @Bean
     public ProducerFactory<String, NotificationEvent> producerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        // Tuned for the outbox relay: large compressed batches, idempotent so ordering survives retries
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        DefaultKafkaProducerFactory<String, NotificationEvent> factory =
+            new DefaultKafkaProducerFactory<>(props, new StringSerializer(), valueSerializer());
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Serializer<NotificationEvent> valueSerializer() {
+        return switch (wireFormat) {
+            case "binary" -> new NotificationEventSerializer();
+            case "json" -> new JsonSerializer<>();
+            default -> throw new IllegalArgumentException(
+                "notification.kafka.producer.wire-format must be json or binary, not " + wireFormat);
+        };
     }
 
     @Bean
@@ -46,11 +102,13 @@ public class KafkaConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroup);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.notificationservice.*");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, NotificationEvent.class);
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // Reads binary and JSON records alike, whatever the producers are currently writing
+        DefaultKafkaConsumerFactory<String, NotificationEvent> factory =
+            new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new NotificationEventDeserializer());
+        // Kafka client metrics, including kafka.consumer.fetch.manager.records.lag.max
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -58,6 +116,25 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, NotificationEvent> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // Deliver whole polls so the consumer can load a batch at a time. Records finish out of order, so
+        // the container never commits: KeyOrderedProcessor commits up to the lowest unfinished record,
+        // after each poll, when the consumer goes idle, and before partitions are revoked.
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setIdleEventInterval(idleCommitInterval.toMillis());
+        containerProperties.setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processor.release(consumer, partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processor.forget(partitions);
+            }
+        });
         return factory;
     }
 }
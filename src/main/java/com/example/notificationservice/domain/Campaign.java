@@ -0,0 +1,94 @@
+package com.example.notificationservice.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A bulk fan-out submitted as a recipient stream. Counters are advanced once per committed chunk so
+ * progress can be polled while the stream is still being consumed.
+ */
+@Entity
+@Table(name = "campaigns")
+public class Campaign implements Persistable<UUID> {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "template_id", nullable = false)
+    private String templateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CampaignStatus status = CampaignStatus.RUNNING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationPriority priority = NotificationPriority.NORMAL;
+
+    @Column(name = "accepted_count", nullable = false)
+    private long acceptedCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "chunk_count", nullable = false)
+    private int chunkCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+        updatedAt = Instant.now();
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = Instant.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
+    public CampaignStatus getStatus() { return status; }
+    public void setStatus(CampaignStatus status) { this.status = status; }
+    public NotificationPriority getPriority() { return priority; }
+    public void setPriority(NotificationPriority priority) { this.priority = priority; }
+    public long getAcceptedCount() { return acceptedCount; }
+    public void setAcceptedCount(long acceptedCount) { this.acceptedCount = acceptedCount; }
+    public long getRejectedCount() { return rejectedCount; }
+    public void setRejectedCount(long rejectedCount) { this.rejectedCount = rejectedCount; }
+    public int getChunkCount() { return chunkCount; }
+    public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,7 @@
+package com.example.notificationservice.domain;
+
+public enum CampaignStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,66 @@
+package com.example.notificationservice.domain;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The response recorded for an {@code Idempotency-Key}. The key is the primary key, so a second
+ * insert of the same key fails on the unique index and rolls back the duplicate accept with it.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_expires", columnList = "expires_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(name = "notification_id", columnDefinition = "uuid")
+    private UUID notificationId;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    @Column(name = "http_status", nullable = false)
+    private int httpStatus;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
+    public String getId() { return key; }
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    public UUID getNotificationId() { return notificationId; }
+    public void setNotificationId(UUID notificationId) { this.notificationId = notificationId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getHttpStatus() { return httpStatus; }
+    public void setHttpStatus(int httpStatus) { this.httpStatus = httpStatus; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
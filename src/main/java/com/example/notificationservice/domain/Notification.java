@@ -1,16 +1,17 @@
 package com.example.notificationservice.domain;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
-import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "notifications")
-public class Notification {
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_campaign", columnList = "campaign_id"),
+    @Index(name = "idx_notifications_due", columnList = "status, due_at, id")
+})
+public class Notification implements Persistable<UUID> {
 
     @Id
     @Column(columnDefinition = "uuid")
@@ -19,6 +20,9 @@ public class Notification {
     @Column(name = "template_id", nullable = false)
     private String templateId;
 
+    @Column(name = "campaign_id", columnDefinition = "uuid")
+    private UUID campaignId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ChannelType channel;
@@ -26,15 +30,13 @@ public class Notification {
     @Column(nullable = false)
     private String recipient;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(columnDefinition = "varchar(4000)")
-    private Map<String, String> variables;
-
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private NotificationStatus status = NotificationStatus.PENDING;
 
-    private String priority;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationPriority priority = NotificationPriority.NORMAL;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -45,6 +47,10 @@ public class Notification {
     @Column(name = "sent_at")
     private Instant sentAt;
 
+    /** Earliest delivery time for a SCHEDULED notification; null for immediate sends. */
+    @Column(name = "due_at")
+    private Instant dueAt;
+
     @Column(name = "external_id")
     private String externalId;
 
@@ -54,11 +60,24 @@ public class Notification {
     @Column(name = "retry_count")
     private int retryCount;
 
-    @Column(name = "subject")
-    private String subject;
-
-    @Column(name = "body", length = 10000)
-    private String body;
+    /** Shared, content-addressed subject, body and variables; only loaded on dispatch. */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "content_id", nullable = false, updatable = false)
+    private NotificationContent content;
+
+    /**
+     * Ids are assigned before persist, so Spring Data cannot infer newness from the id. Without this
+     * flag save() falls back to merge, which issues a SELECT per row before the INSERT.
+     */
+    @Transient
+    private boolean isNew = true;
+
+    /**
+     * The content this instance was rendered with, when it was created in this process. {@link #content}
+     * may then be an uninitialised reference, and dispatch reads from here instead of loading it.
+     */
+    @Transient
+    private NotificationContent rendered;
 
     @PrePersist
     void onCreate() {
@@ -66,39 +85,54 @@ public class Notification {
         updatedAt = Instant.now();
     }
 
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+
     @PreUpdate
     void onUpdate() {
         updatedAt = Instant.now();
     }
 
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @Override
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
     public String getTemplateId() { return templateId; }
     public void setTemplateId(String templateId) { this.templateId = templateId; }
+    public UUID getCampaignId() { return campaignId; }
+    public void setCampaignId(UUID campaignId) { this.campaignId = campaignId; }
     public ChannelType getChannel() { return channel; }
     public void setChannel(ChannelType channel) { this.channel = channel; }
     public String getRecipient() { return recipient; }
     public void setRecipient(String recipient) { this.recipient = recipient; }
-    public Map<String, String> getVariables() { return variables; }
-    public void setVariables(Map<String, String> variables) { this.variables = variables; }
     public NotificationStatus getStatus() { return status; }
     public void setStatus(NotificationStatus status) { this.status = status; }
-    public String getPriority() { return priority; }
-    public void setPriority(String priority) { this.priority = priority; }
+    public NotificationPriority getPriority() { return priority; }
+    public void setPriority(NotificationPriority priority) { this.priority = priority; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
     public Instant getSentAt() { return sentAt; }
     public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+    public Instant getDueAt() { return dueAt; }
+    public void setDueAt(Instant dueAt) { this.dueAt = dueAt; }
     public String getExternalId() { return externalId; }
     public void setExternalId(String externalId) { this.externalId = externalId; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
     public int getRetryCount() { return retryCount; }
     public void setRetryCount(int retryCount) { this.retryCount = retryCount; }
-    public String getSubject() { return subject; }
-    public void setSubject(String subject) { this.subject = subject; }
-    public String getBody() { return body; }
-    public void setBody(String body) { this.body = body; }
+    public NotificationContent getContent() { return content; }
+    public void setContent(NotificationContent content) { this.content = content; }
+    public void setRenderedContent(NotificationContent rendered) { this.rendered = rendered; }
+    /** Loads the content if it was neither rendered here nor fetched with the row. */
+    public String getSubject() { return rendered != null ? rendered.getSubject() : content.getSubject(); }
+    /** Loads the content if it was neither rendered here nor fetched with the row. */
+    public String getBody() { return rendered != null ? rendered.getBody() : content.getBody(); }
 }
@@ -0,0 +1,89 @@
+package com.example.notificationservice.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The rendered subject and body (and the variables they were rendered from) of a notification. Kept
+ * out of {@code notifications} so the status row stays narrow: status writes, retries and sweeps never
+ * read or rewrite the content, and it is only fetched when a notification is dispatched.
+ * <p>
+ * Content-addressed: the id is derived from the content itself (see {@link #of}), so every
+ * notification with the same rendered content, such as all recipients of a broadcast, references
+ * one shared row. Rows are written once and never updated.
+ */
+@Entity
+@Table(name = "notification_contents")
+public class NotificationContent {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "subject")
+    private String subject;
+
+    @Column(name = "body", length = 10000)
+    private String body;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "varchar(4000)")
+    private Map<String, String> variables;
+
+    protected NotificationContent() {
+    }
+
+    public NotificationContent(UUID id, String subject, String body, Map<String, String> variables) {
+        this.id = id;
+        this.subject = subject;
+        this.body = body;
+        this.variables = variables;
+    }
+
+    /**
+     * Builds the content with its address: the first 128 bits of a SHA-256 over the subject, body and
+     * variables (sorted by name), each length-prefixed so distinct contents cannot collide by
+     * concatenation.
+     */
+    public static NotificationContent of(String subject, String body, Map<String, String> variables) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, subject);
+        update(digest, body);
+        Map<String, String> sorted = variables != null ? new TreeMap<>(variables) : Map.of();
+        for (Map.Entry<String, String> variable : sorted.entrySet()) {
+            update(digest, variable.getKey());
+            update(digest, variable.getValue());
+        }
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new NotificationContent(new UUID(hash.getLong(), hash.getLong()), subject, body, variables);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    public UUID getId() { return id; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public Map<String, String> getVariables() { return variables; }
+}
@@ -0,0 +1,25 @@
+package com.example.notificationservice.domain;
+
+import java.util.Locale;
+
+/**
+ * Delivery lane. HIGH is for messages a user is waiting on (OTPs, password resets), LOW for bulk
+ * campaigns; each lane has its own topic in queue mode and its own share of the in-process sender.
+ */
+public enum NotificationPriority {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    /** Case-insensitive; absent means NORMAL. */
+    public static NotificationPriority parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NORMAL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid priority: " + value + " (expected HIGH, NORMAL or LOW)");
+        }
+    }
+}
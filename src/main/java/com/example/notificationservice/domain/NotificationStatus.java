@@ -3,6 +3,7 @@ package com.example.notificationservice.domain;
 public enum NotificationStatus {
     PENDING,
     ACCEPTED,
+    SCHEDULED,
     SENT,
     FAILED,
     INVALID
@@ -0,0 +1,57 @@
+package com.example.notificationservice.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A message waiting to be published, written in the same transaction as the notification it
+ * describes. Events are relayed per priority lane, each lane in sequence-id order; the pooled
+ * allocation keeps inserts batchable.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_lane", columnList = "priority, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false, columnDefinition = "uuid")
+    private UUID aggregateId;
+
+    @Column(name = "message_key", nullable = false)
+    private String messageKey;
+
+    @Column(nullable = false, length = 32000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationPriority priority = NotificationPriority.NORMAL;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public UUID getAggregateId() { return aggregateId; }
+    public void setAggregateId(UUID aggregateId) { this.aggregateId = aggregateId; }
+    public String getMessageKey() { return messageKey; }
+    public void setMessageKey(String messageKey) { this.messageKey = messageKey; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public NotificationPriority getPriority() { return priority; }
+    public void setPriority(NotificationPriority priority) { this.priority = priority; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
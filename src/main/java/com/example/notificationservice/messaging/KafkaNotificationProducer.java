@@ -1,35 +1,48 @@
 package com.example.notificationservice.messaging;
 
+import com.example.notificationservice.domain.NotificationPriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes events to the topic of their priority lane, so an OTP is never behind a campaign's
+ * backlog in the same partition. Used by {@link OutboxRelay}; the API path writes to the outbox
+ * instead and never waits on the broker.
+ */
 @Component
 @ConditionalOnProperty(name = "notification.queue.enabled", havingValue = "true")
-public class KafkaNotificationProducer implements NotificationProducer {
+public class KafkaNotificationProducer {
 
     private static final Logger log = LoggerFactory.getLogger(KafkaNotificationProducer.class);
 
-    private final String topic;
+    private final Map<NotificationPriority, String> topics = new EnumMap<>(NotificationPriority.class);
     private final KafkaTemplate<String, NotificationEvent> kafkaTemplate;
 
     public KafkaNotificationProducer(
+        @Value("${notification.kafka.lanes.high.topic:notification-send-high}") String highTopic,
         @Value("${notification.kafka.topic:notification-send}") String topic,
+        @Value("${notification.kafka.lanes.low.topic:notification-send-low}") String lowTopic,
         KafkaTemplate<String, NotificationEvent> kafkaTemplate) {
-        this.topic = topic;
+        this.topics.put(NotificationPriority.HIGH, highTopic);
+        this.topics.put(NotificationPriority.NORMAL, topic);
+        this.topics.put(NotificationPriority.LOW, lowTopic);
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    @Override
-    public void send(NotificationEvent event) {
-        try {
-            kafkaTemplate.send(topic, event.notificationId().toString(), event);
-            log.debug("Enqueued notification {}", event.notificationId());
-        } catch (Exception e) {
-            log.warn("Failed to enqueue notification {}: {}", event.notificationId(), e.getMessage());
-        }
+    /**
+     * Hands the record to the producer's batching buffer; the future completes when the broker acks.
+     */
+    public CompletableFuture<SendResult<String, NotificationEvent>> send(String key, NotificationEvent event) {
+        log.debug("Enqueued notification {}", event.notificationId());
+        return kafkaTemplate.send(topics.get(event.lane()), key, event);
     }
 }
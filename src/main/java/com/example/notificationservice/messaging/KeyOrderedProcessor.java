@@ -0,0 +1,235 @@
+package com.example.notificationservice.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the records of a poll concurrently while keeping records with the same key in order: a record
+ * starts once the previous record with its key on the same topic has finished, and records with
+ * different keys run side by side, so one consumer thread can keep hundreds of provider calls in flight
+ * whatever the partition count. Ordering is per topic: a send in one priority lane never waits behind
+ * the same recipient's send in another. Up to {@code max-in-flight-per-topic} records per topic are outstanding; beyond that the
+ * listener thread waits for one to finish.
+ * <p>
+ * Since records complete out of order, offsets are tracked per partition and only committed up to the
+ * lowest record still in flight. A crash therefore redelivers everything from that record on, some of
+ * it possibly already handled: delivery stays at least once. All methods taking a {@link Consumer}, and
+ * {@link #submit}, must be called on that consumer's thread.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.queue.enabled", havingValue = "true")
+public class KeyOrderedProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedProcessor.class);
+
+    private final int maxInFlightPerTopic;
+    private final Duration drainTimeout;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    /** Per topic and key, the completion of the last record submitted with them. */
+    private final Map<ChainKey, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public KeyOrderedProcessor(MeterRegistry meterRegistry,
+                               @Value("${notification.kafka.max-in-flight-per-topic:1000}") int maxInFlightPerTopic,
+                               @Value("${notification.kafka.drain-timeout:30s}") Duration drainTimeout) {
+        this.maxInFlightPerTopic = maxInFlightPerTopic;
+        this.drainTimeout = drainTimeout;
+        Gauge.builder("notification.consumer.in-flight", inFlight, AtomicInteger::get)
+            .description("Consumed records being processed and not yet committable")
+            .register(meterRegistry);
+        Gauge.builder("notification.consumer.keys", tails, Map::size)
+            .description("Distinct topic and record key pairs with work in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts {@code work} for the record once every earlier record with the same topic and key has
+     * finished. The record's offset becomes committable when the future returned by {@code work}
+     * completes, normally or not; {@code work} is expected to handle its own failures.
+     */
+    public void submit(ConsumerRecord<?, ?> record, Supplier<CompletableFuture<?>> work) throws InterruptedException {
+        Semaphore topicPermits = permits.computeIfAbsent(record.topic(), t -> new Semaphore(maxInFlightPerTopic));
+        topicPermits.acquire();
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PartitionOffsets offsets = partitions.computeIfAbsent(partition, p -> new PartitionOffsets());
+        offsets.started(record.offset());
+        inFlight.incrementAndGet();
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ChainKey key = record.key() != null ? new ChainKey(record.topic(), record.key()) : null;
+        CompletableFuture<Void> previous = key != null ? tails.put(key, done) : null;
+        done.whenComplete((r, e) -> {
+            if (key != null) {
+                tails.remove(key, done);
+            }
+            offsets.finished(record.offset());
+            inFlight.decrementAndGet();
+            topicPermits.release();
+        });
+        if (previous == null) {
+            start(record, work, done);
+        } else {
+            previous.whenComplete((r, e) -> start(record, work, done));
+        }
+    }
+
+    private static void start(ConsumerRecord<?, ?> record, Supplier<CompletableFuture<?>> work, CompletableFuture<Void> done) {
+        CompletableFuture<?> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((r, e) -> {
+            if (e != null) {
+                log.error("Processing {}-{}@{} failed: {}", record.topic(), record.partition(), record.offset(),
+                    e.getMessage(), e);
+            }
+            done.complete(null);
+        });
+    }
+
+    /**
+     * Commits, without waiting, every partition of this consumer whose committable offset is past the
+     * last one the broker acknowledged. Until the commit is acknowledged, later calls send it again, so
+     * a failed commit is retried by the next one.
+     */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = advanced(consumer.assignment());
+        if (!offsets.isEmpty()) {
+            // The callback runs on the consumer thread, during a later poll or commit
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null) {
+                    log.warn("Offset commit failed (the next commit retries it): {}", e.getMessage());
+                } else {
+                    acknowledged(committed);
+                }
+            });
+        }
+    }
+
+    /**
+     * Called before partitions are taken away: waits (up to {@code drain-timeout}) for their records to
+     * finish, commits what completed and forgets them.
+     */
+    public void release(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (TopicPartition partition : revoked) {
+            PartitionOffsets offsets = partitions.get(partition);
+            while (offsets != null && !offsets.idle() && System.nanoTime() < deadline) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = advanced(revoked);
+        try {
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+                acknowledged(offsets);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Offset commit on revocation failed; records after the last commit will be redelivered: {}",
+                e.getMessage());
+        }
+        forget(revoked);
+    }
+
+    /** Drops the state of partitions that were lost without a chance to commit. */
+    public void forget(Collection<TopicPartition> lost) {
+        for (TopicPartition partition : lost) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            if (offsets != null && !offsets.idle()) {
+                log.warn("Gave up {} with records still in flight; they will be redelivered", partition);
+            }
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> advanced(Collection<TopicPartition> candidates) {
+        Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>();
+        for (TopicPartition partition : candidates) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets == null) {
+                continue;
+            }
+            long committable = offsets.committable();
+            if (committable > offsets.committed) {
+                result.put(partition, new OffsetAndMetadata(committable));
+            }
+        }
+        return result;
+    }
+
+    private void acknowledged(Map<TopicPartition, OffsetAndMetadata> committed) {
+        committed.forEach((partition, offset) -> {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                offsets.committed = Math.max(offsets.committed, offset.offset());
+            }
+        });
+    }
+
+    /**
+     * Offsets of one partition. Records are started in offset order on the consumer thread and may
+     * finish on any thread.
+     */
+    private static final class PartitionOffsets {
+
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+        /** One past the highest offset started. */
+        private volatile long next = -1;
+        /** Last offset the broker acknowledged; only touched on the consumer thread. */
+        long committed = -1;
+
+        void started(long offset) {
+            pending.add(offset);
+            next = offset + 1;
+        }
+
+        void finished(long offset) {
+            pending.remove(offset);
+        }
+
+        boolean idle() {
+            return pending.isEmpty();
+        }
+
+        /** The offset to commit: the lowest record still in flight, or one past the last started if none is. */
+        long committable() {
+            long upTo = next;
+            try {
+                return Math.min(pending.first(), upTo);
+            } catch (NoSuchElementException e) {
+                return upTo;
+            }
+        }
+    }
+
+    private record ChainKey(String topic, Object key) {}
+}
@@ -2,20 +2,37 @@ package com.example.notificationservice.messaging;
 
 import com.example.notificationservice.channel.ChannelRegistry;
 import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
-import com.example.notificationservice.domain.Notification;
-import com.example.notificationservice.domain.NotificationStatus;
-import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.repository.StatusUpdate;
+import com.example.notificationservice.service.DeliveryMetrics;
+import com.example.notificationservice.service.retry.RetryScheduler;
+import com.example.notificationservice.service.scheduling.ScheduledDeliveryEngine;
+import com.example.notificationservice.service.status.NotificationStatusCache;
+import com.example.notificationservice.service.status.StatusWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @ConditionalOnProperty(name = "notification.queue.enabled", havingValue = "true")
@@ -23,81 +40,187 @@ public class NotificationConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationConsumer.class);
 
-    @org.springframework.beans.factory.annotation.Value("${notification.consumer.max-retries:3}")
-    private int maxRetries;
-
-    private final NotificationRepository notificationRepository;
     private final ChannelRegistry channelRegistry;
+    private final RetryScheduler retryScheduler;
+    private final ScheduledDeliveryEngine scheduledDeliveryEngine;
+    private final StatusWriteBehind statusWriter;
+    private final NotificationStatusCache statusCache;
+    private final KeyOrderedProcessor processor;
+    private final DeliveryMetrics deliveryMetrics;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Timer queueLag;
+    private final Counter skipped;
+    private final Counter stale;
 
-    public NotificationConsumer(NotificationRepository notificationRepository, ChannelRegistry channelRegistry) {
-        this.notificationRepository = notificationRepository;
+    public NotificationConsumer(ChannelRegistry channelRegistry, RetryScheduler retryScheduler,
+                                ScheduledDeliveryEngine scheduledDeliveryEngine,
+                                StatusWriteBehind statusWriter, NotificationStatusCache statusCache,
+                                KeyOrderedProcessor processor, MeterRegistry meterRegistry) {
         this.channelRegistry = channelRegistry;
+        this.retryScheduler = retryScheduler;
+        this.scheduledDeliveryEngine = scheduledDeliveryEngine;
+        this.statusWriter = statusWriter;
+        this.statusCache = statusCache;
+        this.processor = processor;
+        this.deliveryMetrics = new DeliveryMetrics(meterRegistry, "kafka");
+        this.batchTimer = Timer.builder("notification.consumer.batch")
+            .description("Time to hand one poll's records to the processor")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("notification.consumer.batch.size")
+            .description("Events per poll")
+            .register(meterRegistry);
+        this.queueLag = Timer.builder("notification.consumer.lag")
+            .description("Time from acceptance (or due time) until the consumer picks the notification up")
+            .register(meterRegistry);
+        this.skipped = Counter.builder("notification.consumer.skipped")
+            .description("Records not sent because they repeat an earlier record of the poll or are known to be sent")
+            .register(meterRegistry);
+        this.stale = Counter.builder("notification.consumer.stale")
+            .description("Outcomes the row's status guard rejected, e.g. a redelivered send of an already SENT notification")
+            .register(meterRegistry);
     }
 
-    @KafkaListener(topics = "${notification.kafka.topic:notification-send}", groupId = "${notification.kafka.consumer-group:notification-service}")
-    @Transactional
-    public void consume(NotificationEvent event) {
-        Optional<Notification> opt = notificationRepository.findById(event.notificationId());
-        if (opt.isEmpty()) {
-            log.warn("Notification not found: {}", event.notificationId());
-            return;
+    /**
+     * Handles one poll: hands each record to the {@link KeyOrderedProcessor}, which sends records for
+     * different recipients concurrently and records for the same recipient one after another. The event
+     * carries everything needed, so nothing is read from the database; outcomes are written through the
+     * {@link StatusWriteBehind} as guarded UPDATEs, and a record's offset is committable once its outcome
+     * is committed. The listener returns without waiting for the sends, so the next poll overlaps with
+     * this one's provider calls.
+     * <p>
+     * Without a read, a redelivered record can be sent again; that is the at-least-once contract the
+     * offsets already give. The status guards make sure it is never marked twice: an outcome for a row
+     * that is already SENT changes nothing and schedules no retry.
+     * <p>
+     * Each priority lane has its own topic and listener container, with its own consumer threads, so
+     * an OTP is polled as soon as it arrives however deep the campaign lanes are behind.
+     */
+    @KafkaListener(id = "notification-lane-high", topics = "${notification.kafka.lanes.high.topic:notification-send-high}",
+        groupId = "${notification.kafka.consumer-group:notification-service}",
+        concurrency = "${notification.kafka.lanes.high.concurrency:2}")
+    @KafkaListener(id = "notification-lane-normal", topics = "${notification.kafka.topic:notification-send}",
+        groupId = "${notification.kafka.consumer-group:notification-service}",
+        concurrency = "${notification.kafka.concurrency:1}")
+    @KafkaListener(id = "notification-lane-low", topics = "${notification.kafka.lanes.low.topic:notification-send-low}",
+        groupId = "${notification.kafka.consumer-group:notification-service}",
+        concurrency = "${notification.kafka.lanes.low.concurrency:1}")
+    public void consume(List<ConsumerRecord<String, NotificationEvent>> records, Consumer<?, ?> consumer)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        batchSize.record(records.size());
+        // Redelivered duplicates within a poll collapse to one send
+        Set<UUID> seen = new HashSet<>();
+        for (ConsumerRecord<String, NotificationEvent> record : records) {
+            NotificationEvent event = record.value();
+            boolean send = seen.add(event.notificationId()) && !statusCache.isKnownSent(event.notificationId());
+            if (!send) {
+                skipped.increment();
+            }
+            processor.submit(record, send ? () -> process(event) : () -> CompletableFuture.completedFuture(null));
         }
-        Notification n = opt.get();
-        if (n.getStatus() == NotificationStatus.SENT) {
-            log.debug("Already sent: {}", n.getId());
-            return;
+        processor.commit(consumer);
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /** Commits offsets that completed after the last poll returned records. */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        processor.commit(event.getConsumer());
+    }
+
+    /** Sends one event and queues its outcome. Completes once the outcome is committed. */
+    private CompletableFuture<?> process(NotificationEvent event) {
+        Instant acceptedAt = event.acceptedAt();
+        if (acceptedAt != null) {
+            queueLag.record(Duration.between(acceptedAt, Instant.now()));
         }
 
         Optional<NotificationChannel> channelOpt = channelRegistry.getChannel(event.channel());
         if (channelOpt.isEmpty()) {
-            fail(n, "Channel not supported: " + event.channel());
-            return;
+            return fail(event, "Channel not supported: " + event.channel());
         }
+        return send(channelOpt.get(), event).thenCompose(result -> apply(event, acceptedAt, result));
+    }
 
+    private CompletableFuture<SendResult> send(NotificationChannel channel, NotificationEvent event) {
         try {
-            CompletableFuture<SendResult> future = channelOpt.get().send(
-                new com.example.notificationservice.channel.NotificationPayload(
+            return channel.send(new NotificationPayload(
                     event.notificationId(),
                     event.channel(),
                     event.recipient(),
                     event.subject(),
                     event.body(),
                     event.retryCount()
-                )
-            );
-            SendResult result = future.get();
-            if (result.success()) {
-                n.setStatus(NotificationStatus.SENT);
-                n.setSentAt(Instant.now());
-                n.setExternalId(result.externalId());
-                n.setErrorMessage(null);
-                notificationRepository.save(n);
-                log.info("Sent notification {} via {}", n.getId(), event.channel());
-            } else {
-                handleFailure(n, result.errorMessage());
-            }
+                ))
+                .exceptionally(e -> SendResult.failure(e.getMessage()));
         } catch (Exception e) {
-            log.error("Send failed for {}: {}", n.getId(), e.getMessage());
-            handleFailure(n, e.getMessage());
+            return CompletableFuture.completedFuture(SendResult.failure(e.getMessage()));
         }
     }
 
-    private void handleFailure(Notification n, String errorMessage) {
-        n.setRetryCount(n.getRetryCount() + 1);
-        n.setErrorMessage(errorMessage);
-        if (n.getRetryCount() >= maxRetries) {
-            fail(n, errorMessage);
-        } else {
-            n.setStatus(NotificationStatus.PENDING);
-            notificationRepository.save(n);
-            log.warn("Notification {} failed (retry {}/{}): {}", n.getId(), n.getRetryCount(), maxRetries, errorMessage);
+    private CompletableFuture<?> apply(NotificationEvent event, Instant acceptedAt, SendResult result) {
+        if (result.success()) {
+            deliveryMetrics.sent(event.channel(), event.lane(), acceptedAt);
+            log.info("Sent notification {} via {}", event.notificationId(), event.channel());
+            return write(StatusUpdate.sent(event.notificationId(), result.externalId(), event.retryCount()));
+        }
+        if (result.unavailable()) {
+            return defer(event, result);
         }
+        log.error("Send failed for {}: {}", event.notificationId(), result.errorMessage());
+        return handleFailure(event, result);
+    }
+
+    private CompletableFuture<?> handleFailure(NotificationEvent event, SendResult result) {
+        int failures = event.retryCount() + 1;
+        if (result.rejected() || !retryScheduler.shouldRetry(failures)) {
+            return fail(event.withRetryCount(failures), result.errorMessage());
+        }
+        deliveryMetrics.retried(event.channel());
+        log.warn("Notification {} failed (retry {}/{}): {}", event.notificationId(), failures,
+            retryScheduler.getMaxRetries(), result.errorMessage());
+        // Parked as SCHEDULED until the backoff elapses, then released through the outbox again; the
+        // offset commits once the row is parked, so neither a restart nor a rebalance loses the retry
+        return scheduledDeliveryEngine.retry(event.notificationId(),
+                retryScheduler.nextAttempt(failures, result.retryAfter()), result.errorMessage(), failures)
+            .thenAccept(parked -> {
+                if (!parked) {
+                    stale.increment();
+                }
+            });
+    }
+
+    /**
+     * The channel refused the send without attempting it: parks the notification until it may take
+     * sends again, without counting a retry.
+     */
+    private CompletableFuture<?> defer(NotificationEvent event, SendResult result) {
+        deliveryMetrics.deferred(event.channel());
+        log.debug("Deferring notification {}: {}", event.notificationId(), result.errorMessage());
+        return scheduledDeliveryEngine.defer(event.notificationId(), Instant.now().plus(result.retryAfter()),
+                result.errorMessage(), event.retryCount())
+            .thenAccept(parked -> {
+                if (!parked) {
+                    stale.increment();
+                }
+            });
+    }
+
+    /** Queues an outcome; completes with whether it changed the row, counting those that did not. */
+    private CompletableFuture<Boolean> write(StatusUpdate update) {
+        return statusWriter.submit(update).thenApply(applied -> {
+            if (!applied) {
+                stale.increment();
+                log.debug("Notification {} already final; {} not recorded", update.id(), update.status());
+            }
+            return applied;
+        });
     }
 
-    private void fail(Notification n, String errorMessage) {
-        n.setStatus(NotificationStatus.FAILED);
-        n.setErrorMessage(errorMessage);
-        notificationRepository.save(n);
-        log.error("Notification {} marked FAILED: {}", n.getId(), errorMessage);
+    private CompletableFuture<?> fail(NotificationEvent event, String errorMessage) {
+        deliveryMetrics.failed(event.channel());
+        log.error("Notification {} marked FAILED: {}", event.notificationId(), errorMessage);
+        return write(StatusUpdate.failed(event.notificationId(), errorMessage, event.retryCount()));
     }
 }
@@ -2,17 +2,36 @@ package com.example.notificationservice.messaging;
 
 import com.example.notificationservice.domain.ChannelType;
 import com.example.notificationservice.domain.Notification;
+import com.example.notificationservice.domain.NotificationPriority;
 
+import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Everything the consumer needs to send a notification and record the outcome, so the hot path never
+ * reads the row. {@code acceptedAt} (the due time for scheduled sends) only feeds lag and latency
+ * metrics and is absent on events written before it existed.
+ */
 public record NotificationEvent(
     UUID notificationId,
     ChannelType channel,
     String recipient,
     String subject,
     String body,
-    int retryCount
+    int retryCount,
+    NotificationPriority priority,
+    Instant acceptedAt
 ) {
+    public NotificationEvent withRetryCount(int retryCount) {
+        return new NotificationEvent(notificationId, channel, recipient, subject, body, retryCount, priority,
+            acceptedAt);
+    }
+
+    /** The lane this event travels in; events written before priorities existed carry none. */
+    public NotificationPriority lane() {
+        return priority != null ? priority : NotificationPriority.NORMAL;
+    }
+
     public static NotificationEvent from(Notification n) {
         return new NotificationEvent(
             n.getId(),
@@ -20,7 +39,9 @@ public record NotificationEvent(
             n.getRecipient(),
             n.getSubject(),
             n.getBody(),
-            n.getRetryCount()
+            n.getRetryCount(),
+            n.getPriority(),
+            n.getDueAt() != null ? n.getDueAt() : n.getCreatedAt()
         );
     }
 }
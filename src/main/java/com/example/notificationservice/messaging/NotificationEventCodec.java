@@ -0,0 +1,212 @@
+package com.example.notificationservice.messaging;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Binary layout of a {@link NotificationEvent}:
+ * <pre>
+ * magic (0xB7)  version (1)
+ * notificationId  16 bytes, big-endian most then least significant half
+ * channel         string
+ * recipient       string
+ * subject         string (nullable)
+ * body            string (nullable)
+ * retryCount      varint
+ * priority        string (nullable)
+ * acceptedAt      8 bytes, epoch millis (Long.MIN_VALUE for null); absent from records written before it
+ * </pre>
+ * A string is a varint of its UTF-8 length plus one (0 for null) followed by the bytes; enums are
+ * written by name so reordering their constants never changes a message's meaning.
+ * <p>
+ * New fields are only ever appended, and readers ignore trailing bytes they do not know, so a field
+ * can be added without a version bump. The version changes only for a layout old readers cannot skip.
+ * The magic byte can never start a JSON document, which is how readers tell the formats apart.
+ */
+final class NotificationEventCodec {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private NotificationEventCodec() {
+    }
+
+    static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    static byte[] encode(NotificationEvent event) {
+        byte[] recipient = utf8(event.recipient());
+        byte[] subject = utf8(event.subject());
+        byte[] body = utf8(event.body());
+        Writer out = new Writer(64 + length(recipient) + length(subject) + length(body));
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.writeLong(event.notificationId().getMostSignificantBits());
+        out.writeLong(event.notificationId().getLeastSignificantBits());
+        out.writeString(utf8(event.channel() != null ? event.channel().name() : null));
+        out.writeString(recipient);
+        out.writeString(subject);
+        out.writeString(body);
+        out.writeVarint(event.retryCount());
+        out.writeString(utf8(event.priority() != null ? event.priority().name() : null));
+        out.writeLong(event.acceptedAt() != null ? event.acceptedAt().toEpochMilli() : Long.MIN_VALUE);
+        return out.toByteArray();
+    }
+
+    static NotificationEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != MAGIC) {
+            throw new SerializationException("Not a binary NotificationEvent");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported NotificationEvent version " + version);
+        }
+        UUID id = new UUID(in.readLong(), in.readLong());
+        String channel = in.readString();
+        String recipient = in.readString();
+        String subject = in.readString();
+        String body = in.readString();
+        int retryCount = in.readVarint();
+        String priority = in.readString();
+        long acceptedAt = in.hasRemaining() ? in.readLong() : Long.MIN_VALUE;
+        return new NotificationEvent(id, constant(ChannelType.class, channel), recipient, subject, body, retryCount,
+            constant(NotificationPriority.class, priority), acceptedAt != Long.MIN_VALUE ? Instant.ofEpochMilli(acceptedAt) : null);
+    }
+
+    private static <E extends Enum<E>> E constant(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Unknown " + type.getSimpleName() + " " + name + " in NotificationEvent");
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static final class Writer {
+
+        private byte[] buf;
+        private int pos;
+
+        Writer(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void write(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeLong(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (v >>> shift);
+            }
+        }
+
+        void writeVarint(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(byte[] utf8) {
+            if (utf8 == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+
+        byte[] toByteArray() {
+            return pos == buf.length ? buf : Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        boolean hasRemaining() {
+            return pos < buf.length;
+        }
+
+        byte readByte() {
+            require(1);
+            return buf[pos++];
+        }
+
+        long readLong() {
+            require(8);
+            long v = 0;
+            for (int i = 0; i < 8; i++) {
+                v = (v << 8) | (buf[pos++] & 0xFF);
+            }
+            return v;
+        }
+
+        int readVarint() {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                v |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+            }
+            throw new SerializationException("Malformed varint in NotificationEvent");
+        }
+
+        String readString() {
+            int n = readVarint();
+            if (n == 0) {
+                return null;
+            }
+            int length = n - 1;
+            require(length);
+            String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        private void require(int n) {
+            if (n < 0 || n > buf.length - pos) {
+                throw new SerializationException("Truncated NotificationEvent");
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.notificationservice.messaging;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link NotificationEvent}s in either wire format, chosen per record by its first byte: the
+ * binary layout of {@link NotificationEventCodec}, or the JSON written by {@code JsonSerializer}.
+ * Consumers can therefore be upgraded before producers switch format, and records already in the
+ * topics stay readable.
+ */
+public class NotificationEventDeserializer implements Deserializer<NotificationEvent> {
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public NotificationEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (NotificationEventCodec.isBinary(data)) {
+            return NotificationEventCodec.decode(data);
+        }
+        try {
+            return objectMapper.readValue(data, NotificationEvent.class);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot read NotificationEvent from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.notificationservice.messaging;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes {@link NotificationEvent}s in the compact binary layout of {@link NotificationEventCodec}:
+ * no field names, no type headers and no reflection. Only switch producers to it once every consumer
+ * runs {@link NotificationEventDeserializer}.
+ */
+public class NotificationEventSerializer implements Serializer<NotificationEvent> {
+
+    @Override
+    public byte[] serialize(String topic, NotificationEvent event) {
+        return event != null ? NotificationEventCodec.encode(event) : null;
+    }
+}
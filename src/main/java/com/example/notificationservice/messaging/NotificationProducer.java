@@ -1,6 +1,12 @@
 package com.example.notificationservice.messaging;
 
+import java.util.List;
+
 public interface NotificationProducer {
 
     void send(NotificationEvent event);
+
+    default void sendAll(List<NotificationEvent> events) {
+        events.forEach(this::send);
+    }
 }
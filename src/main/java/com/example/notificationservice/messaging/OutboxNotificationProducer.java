@@ -0,0 +1,60 @@
+package com.example.notificationservice.messaging;
+
+import com.example.notificationservice.domain.OutboxEvent;
+import com.example.notificationservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queue-mode producer: appends events to the outbox in the caller's transaction, so an event exists
+ * if and only if its notification was committed. {@link OutboxRelay} publishes them to Kafka, keyed by
+ * recipient so that one recipient's notifications share a partition and are consumed in order.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.queue.enabled", havingValue = "true")
+public class OutboxNotificationProducer implements NotificationProducer {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxNotificationProducer(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void send(NotificationEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sendAll(List<NotificationEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        for (NotificationEvent event : events) {
+            rows.add(toOutboxEvent(event));
+        }
+        outboxEventRepository.saveAll(rows);
+    }
+
+    private OutboxEvent toOutboxEvent(NotificationEvent event) {
+        OutboxEvent row = new OutboxEvent();
+        row.setAggregateId(event.notificationId());
+        row.setMessageKey(event.recipient());
+        row.setPriority(event.lane());
+        try {
+            row.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event " + event.notificationId(), e);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.notificationservice.messaging;
+
+import com.example.notificationservice.domain.NotificationPriority;
+import com.example.notificationservice.domain.OutboxEvent;
+import com.example.notificationservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to Kafka. Each pass locks the oldest batch, hands every record to the producer
+ * without waiting (the producer batches and compresses them), then waits for the acks and deletes
+ * the rows acked in order. Anything after the first failed ack stays in the outbox and is retried on
+ * the next pass, so events are published at least once and in outbox order.
+ * <p>
+ * Priority lanes are drained in turn, one batch each per round starting with HIGH, so a campaign's
+ * backlog in the outbox delays an OTP by at most one batch of each other lane.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.queue.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaNotificationProducer kafkaProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<NotificationPriority, AtomicLong> lagMillis = new EnumMap<>(NotificationPriority.class);
+    private final Counter relayedCounter;
+
+    @Value("${notification.outbox.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notification.outbox.ack-timeout-ms:30000}")
+    private long ackTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaNotificationProducer kafkaProducer,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${notification.outbox.metrics.name:notification.outbox}") String metricName) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayedCounter = Counter.builder(metricName + ".relayed")
+            .description("Outbox events published to Kafka")
+            .register(meterRegistry);
+        for (NotificationPriority lane : NotificationPriority.values()) {
+            AtomicLong lag = new AtomicLong();
+            lagMillis.put(lane, lag);
+            Gauge.builder(metricName + ".lag", lag, v -> v.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event in a lane, as of the last relay pass")
+                .tag("priority", lane.name())
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:200}")
+    public void relay() {
+        boolean more;
+        do {
+            more = false;
+            for (NotificationPriority lane : NotificationPriority.values()) {
+                Integer relayed = transactionTemplate.execute(status -> relayBatch(lane));
+                more |= relayed != null && relayed == batchSize;
+            }
+        } while (more);
+    }
+
+    private int relayBatch(NotificationPriority lane) {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(lane, PageRequest.of(0, batchSize));
+        AtomicLong lag = lagMillis.get(lane);
+        if (batch.isEmpty()) {
+            lag.set(0);
+            return 0;
+        }
+        lag.set(Math.max(0, Instant.now().toEpochMilli() - batch.get(0).getCreatedAt().toEpochMilli()));
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent row : batch) {
+            acks.add(publish(row));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        int acked = 0;
+        for (CompletableFuture<?> ack : acks) {
+            try {
+                ack.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acked++;
+            } catch (Exception e) {
+                log.warn("Outbox relay stopped at event {}: {}", batch.get(acked).getId(), e.getMessage());
+                break;
+            }
+        }
+
+        List<Long> published = new ArrayList<>(acked);
+        for (int i = 0; i < acked; i++) {
+            published.add(batch.get(i).getId());
+        }
+        outboxEventRepository.deleteAllByIdInBatch(published);
+        relayedCounter.increment(acked);
+        return acked;
+    }
+
+    private CompletableFuture<?> publish(OutboxEvent row) {
+        NotificationEvent event;
+        try {
+            event = objectMapper.readValue(row.getPayload(), NotificationEvent.class);
+        } catch (Exception e) {
+            // A row that can never be read would block the outbox forever; drop it loudly
+            log.error("Dropping unreadable outbox event {} for {}: {}", row.getId(), row.getAggregateId(), e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return kafkaProducer.send(row.getMessageKey(), event);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
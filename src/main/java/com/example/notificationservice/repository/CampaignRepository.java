@@ -0,0 +1,28 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.Campaign;
+import com.example.notificationservice.domain.CampaignStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface CampaignRepository extends JpaRepository<Campaign, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("update Campaign c set c.acceptedCount = c.acceptedCount + :accepted, " +
+        "c.rejectedCount = c.rejectedCount + :rejected, c.chunkCount = c.chunkCount + 1, " +
+        "c.updatedAt = :now where c.id = :id")
+    int addProgress(@Param("id") UUID id, @Param("accepted") long accepted,
+                    @Param("rejected") long rejected, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update Campaign c set c.status = :status, c.completedAt = :now, c.updatedAt = :now where c.id = :id")
+    int finish(@Param("id") UUID id, @Param("status") CampaignStatus status, @Param("now") Instant now);
+}
@@ -0,0 +1,28 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.IdempotencyRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Keys past their TTL, oldest first, so cleanup can delete them in bounded batches.
+     */
+    @Query("select r.key from IdempotencyRecord r where r.expiresAt < :now order by r.expiresAt")
+    List<String> findExpiredKeys(@Param("now") Instant now, Pageable page);
+
+    /**
+     * Deletes the record for {@code key} if it is past its TTL, so the key can be used again before
+     * the cleanup job gets to it.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") Instant now);
+}
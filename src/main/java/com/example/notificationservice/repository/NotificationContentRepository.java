@@ -0,0 +1,10 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.NotificationContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface NotificationContentRepository extends JpaRepository<NotificationContent, UUID>,
+    NotificationContentRepositoryCustom {
+}
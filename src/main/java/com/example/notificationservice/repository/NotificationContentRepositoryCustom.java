@@ -0,0 +1,16 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.NotificationContent;
+
+import java.util.Collection;
+
+public interface NotificationContentRepositoryCustom {
+
+    /**
+     * Inserts the contents whose address is not stored yet, as one JDBC batch of MERGE statements.
+     * Contents already present are left untouched; being content-addressed, they are identical. If
+     * a concurrent transaction commits one of them first, the batch is rolled back to a savepoint
+     * and replayed rather than failing the caller's transaction.
+     */
+    void insertMissing(Collection<NotificationContent> contents);
+}
@@ -0,0 +1,71 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.NotificationContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class NotificationContentRepositoryImpl implements NotificationContentRepositoryCustom {
+
+    private static final String INSERT_MISSING =
+        "merge into notification_contents c " +
+        "using (select cast(? as uuid) as id, cast(? as varchar(255)) as subject, cast(? as varchar(10000)) as body, " +
+        "cast(? as varchar(4000)) as variables) v on c.id = v.id " +
+        "when not matched then insert (id, subject, body, variables) values (v.id, v.subject, v.body, v.variables)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    NotificationContentRepositoryImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void insertMissing(Collection<NotificationContent> contents) {
+        if (contents.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(contents.size());
+        for (NotificationContent c : contents) {
+            args.add(new Object[] { c.getId(), c.getSubject(), c.getBody(), toJson(c) });
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            // Runs on the caller's transactional connection; a savepoint keeps a lost race from failing it
+            Savepoint savepoint = con.getAutoCommit() ? null : con.setSavepoint();
+            try {
+                jdbcTemplate.batchUpdate(INSERT_MISSING, args);
+            } catch (DataIntegrityViolationException e) {
+                if (savepoint == null) {
+                    throw e;
+                }
+                // A concurrent transaction committed the same content first; the MERGE now matches it
+                con.rollback(savepoint);
+                jdbcTemplate.batchUpdate(INSERT_MISSING, args);
+            } finally {
+                if (savepoint != null) {
+                    con.releaseSavepoint(savepoint);
+                }
+            }
+            return null;
+        });
+    }
+
+    private String toJson(NotificationContent content) {
+        if (content.getVariables() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(content.getVariables());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Variables are not serializable: " + e.getMessage(), e);
+        }
+    }
+}
@@ -2,12 +2,43 @@ package com.example.notificationservice.repository;
 
 import com.example.notificationservice.domain.Notification;
 import com.example.notificationservice.domain.NotificationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+public interface NotificationRepository extends JpaRepository<Notification, UUID>, NotificationRepositoryCustom {
 
     List<Notification> findByStatus(NotificationStatus status);
+
+    /**
+     * One keyset page of SCHEDULED rows due by {@code horizon}, strictly after the cursor
+     * {@code (afterDue, afterId)} in {@code (due_at, id)} order. Served from idx_notifications_due
+     * without an offset scan, however far into the schedule the page is.
+     */
+    @Query("select n.id as id, n.dueAt as dueAt from Notification n " +
+        "where n.status = com.example.notificationservice.domain.NotificationStatus.SCHEDULED " +
+        "and n.dueAt <= :horizon and (n.dueAt > :afterDue or (n.dueAt = :afterDue and n.id > :afterId)) " +
+        "order by n.dueAt, n.id")
+    List<DueSlot> findScheduledPage(@Param("horizon") Instant horizon, @Param("afterDue") Instant afterDue,
+                                    @Param("afterId") UUID afterId, Pageable page);
+
+    @Query("select new com.example.notificationservice.repository.NotificationStatusView(" +
+        "n.id, n.status, n.channel, n.recipient, n.sentAt, n.errorMessage) from Notification n where n.id = :id")
+    Optional<NotificationStatusView> findStatusById(@Param("id") UUID id);
+
+    /** Loads the rows together with their content, for dispatch. */
+    @Query("select n from Notification n join fetch n.content where n.id in :ids")
+    List<Notification> findAllWithContentById(@Param("ids") Collection<UUID> ids);
+
+    interface DueSlot {
+        UUID getId();
+        Instant getDueAt();
+    }
 }
@@ -0,0 +1,23 @@
+package com.example.notificationservice.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Moves the given SCHEDULED rows to ACCEPTED with one conditional UPDATE per row, sent as a
+     * single JDBC batch. Returns the ids this call actually claimed; rows already released (by
+     * another instance, or cancelled) are left alone.
+     */
+    List<UUID> claimScheduled(Collection<UUID> ids, Instant now);
+
+    /**
+     * Writes delivery outcomes without loading the rows: one parameterised UPDATE per outcome, each
+     * sent as a single JDBC batch. A SENT row is never moved back, and a FAILED row is not reopened by a
+     * stale retry or deferral. Returns the updates that changed their row.
+     */
+    List<StatusUpdate> applyStatusUpdates(Collection<StatusUpdate> updates);
+}
@@ -0,0 +1,103 @@
+package com.example.notificationservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String CLAIM_SCHEDULED =
+        "update notifications set status = 'ACCEPTED', updated_at = ? where id = ? and status = 'SCHEDULED'";
+
+    private static final String MARK_SENT =
+        "update notifications set status = 'SENT', sent_at = ?, external_id = ?, error_message = null, " +
+        "retry_count = ?, updated_at = ? where id = ? and status <> 'SENT'";
+
+    private static final String MARK_FAILED =
+        "update notifications set status = 'FAILED', error_message = ?, retry_count = ?, updated_at = ? " +
+        "where id = ? and status <> 'SENT'";
+
+    private static final String MARK_DEFERRED =
+        "update notifications set status = 'SCHEDULED', due_at = ?, error_message = ?, retry_count = ?, updated_at = ? " +
+        "where id = ? and status not in ('SENT', 'FAILED')";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    NotificationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UUID> claimScheduled(Collection<UUID> ids, Instant now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> batch = new ArrayList<>(ids);
+        Timestamp updatedAt = Timestamp.from(now);
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (UUID id : batch) {
+            args.add(new Object[] { updatedAt, id });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(CLAIM_SCHEDULED, args);
+        List<UUID> claimed = new ArrayList<>(batch.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                claimed.add(batch.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public List<StatusUpdate> applyStatusUpdates(Collection<StatusUpdate> updates) {
+        List<StatusUpdate> sent = new ArrayList<>();
+        List<StatusUpdate> failed = new ArrayList<>();
+        List<StatusUpdate> deferred = new ArrayList<>();
+        for (StatusUpdate u : updates) {
+            switch (u.status()) {
+                case SENT -> sent.add(u);
+                case FAILED -> failed.add(u);
+                case SCHEDULED -> deferred.add(u);
+                default -> throw new IllegalArgumentException("Not a delivery outcome: " + u.status());
+            }
+        }
+        List<StatusUpdate> applied = new ArrayList<>(updates.size());
+        batch(MARK_SENT, sent, applied, u -> new Object[] {
+            Timestamp.from(u.at()), u.externalId(), u.retryCount(), Timestamp.from(u.at()), u.id() });
+        batch(MARK_FAILED, failed, applied, u -> new Object[] {
+            truncate(u.errorMessage()), u.retryCount(), Timestamp.from(u.at()), u.id() });
+        batch(MARK_DEFERRED, deferred, applied, u -> new Object[] {
+            Timestamp.from(u.dueAt()), truncate(u.errorMessage()), u.retryCount(), Timestamp.from(u.at()), u.id() });
+        return applied;
+    }
+
+    private void batch(String sql, List<StatusUpdate> updates, List<StatusUpdate> applied,
+                       Function<StatusUpdate, Object[]> params) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(updates.size());
+        for (StatusUpdate u : updates) {
+            args.add(params.apply(u));
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO (-2) still means the statement ran; only an explicit 0 means the guard held
+            if (counts[i] != 0) {
+                applied.add(updates.get(i));
+            }
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
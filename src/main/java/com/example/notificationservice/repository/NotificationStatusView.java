@@ -0,0 +1,22 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns a status poll needs, read without touching body, subject or variables.
+ */
+public record NotificationStatusView(UUID id, NotificationStatus status, ChannelType channel, String recipient,
+                                     Instant sentAt, String errorMessage) {
+
+    /** The view after {@code update} has been written. */
+    public NotificationStatusView apply(StatusUpdate update) {
+        return switch (update.status()) {
+            case SENT -> new NotificationStatusView(id, update.status(), channel, recipient, update.at(), null);
+            default -> new NotificationStatusView(id, update.status(), channel, recipient, sentAt, update.errorMessage());
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.NotificationPriority;
+import com.example.notificationservice.domain.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest pending events of one priority lane, locked so that concurrent relays (one per pod) never publish the same
+     * rows; where the database supports it, rows locked by another relay are skipped rather than waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.priority = :priority order by e.id")
+    List<OutboxEvent> lockNextBatch(@Param("priority") NotificationPriority priority, Pageable page);
+}
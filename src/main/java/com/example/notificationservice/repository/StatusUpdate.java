@@ -0,0 +1,28 @@
+package com.example.notificationservice.repository;
+
+import com.example.notificationservice.domain.NotificationStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One delivery outcome to write back to a notification row: SENT (with the provider id), FAILED, or
+ * SCHEDULED again until {@code dueAt}, for a retry or a send deferred without being attempted.
+ * {@code retryCount} is the row's count after this attempt, so the last update for a row always
+ * carries the full picture.
+ */
+public record StatusUpdate(UUID id, NotificationStatus status, String externalId, String errorMessage,
+                           int retryCount, Instant at, Instant dueAt) {
+
+    public static StatusUpdate sent(UUID id, String externalId, int retryCount) {
+        return new StatusUpdate(id, NotificationStatus.SENT, externalId, null, retryCount, Instant.now(), null);
+    }
+
+    public static StatusUpdate failed(UUID id, String errorMessage, int retryCount) {
+        return new StatusUpdate(id, NotificationStatus.FAILED, null, errorMessage, retryCount, Instant.now(), null);
+    }
+
+    public static StatusUpdate deferred(UUID id, String errorMessage, int retryCount, Instant dueAt) {
+        return new StatusUpdate(id, NotificationStatus.SCHEDULED, null, errorMessage, retryCount, Instant.now(), dueAt);
+    }
+}
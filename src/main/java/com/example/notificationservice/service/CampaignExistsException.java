@@ -0,0 +1,21 @@
+package com.example.notificationservice.service;
+
+import java.util.UUID;
+
+/**
+ * A campaign was submitted under an id that is already taken, whether found up front or by the insert
+ * losing a race with a concurrent upload of the same id.
+ */
+public class CampaignExistsException extends RuntimeException {
+
+    private final UUID campaignId;
+
+    public CampaignExistsException(UUID campaignId) {
+        super("Campaign " + campaignId + " already exists");
+        this.campaignId = campaignId;
+    }
+
+    public UUID getCampaignId() {
+        return campaignId;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.api.dto.CampaignRequest;
+import com.example.notificationservice.api.dto.RecipientDto;
+import com.example.notificationservice.domain.Campaign;
+import com.example.notificationservice.domain.CampaignStatus;
+import com.example.notificationservice.repository.CampaignRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Streams a bulk NDJSON campaign: a {@link CampaignRequest} line followed by one {@link RecipientDto}
+ * per line. Recipients are parsed incrementally and persisted in bounded chunks, each in its own
+ * transaction, so memory stays flat and no single transaction spans the whole list. In in-process
+ * mode a chunk waits for room in the dispatcher first, so the heap does not fill with queued sends.
+ */
+@Service
+public class CampaignService {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignService.class);
+
+    private final NotificationOrchestrator orchestrator;
+    private final CampaignRepository campaignRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notification.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    public CampaignService(NotificationOrchestrator orchestrator,
+                           CampaignRepository campaignRepository,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager) {
+        this.orchestrator = orchestrator;
+        this.campaignRepository = campaignRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Consumes the whole stream. The campaign row is committed as soon as the header is read, so it can
+     * be polled under a client-supplied id while recipients are still arriving. A malformed header or a
+     * reused id ({@link CampaignExistsException}) is rejected up front; a failure after the header
+     * leaves the campaign FAILED with its progress counters reflecting the committed chunks.
+     */
+    public Campaign run(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() == null) {
+                throw new IllegalArgumentException("Campaign header is required");
+            }
+            CampaignRequest request = objectMapper.readValue(parser, CampaignRequest.class);
+            UUID campaignId = request.getCampaignId() != null ? request.getCampaignId() : UUID.randomUUID();
+            if (campaignRepository.existsById(campaignId)) {
+                throw new CampaignExistsException(campaignId);
+            }
+            NotificationOrchestrator.CampaignPlan plan = orchestrator.planCampaign(campaignId, request);
+
+            Campaign campaign = new Campaign();
+            campaign.setId(plan.campaignId());
+            campaign.setTemplateId(plan.templateId());
+            campaign.setPriority(plan.priority());
+            try {
+                campaignRepository.save(campaign);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent upload with the same id inserted it after the check above
+                if (campaignRepository.existsById(campaignId)) {
+                    throw new CampaignExistsException(campaignId);
+                }
+                throw e;
+            }
+
+            CampaignStatus outcome = CampaignStatus.COMPLETED;
+            try {
+                stream(parser, plan);
+            } catch (RuntimeException | IOException e) {
+                // Chunks committed so far stay accepted and are delivered; the campaign records where it stopped
+                log.warn("Campaign {} aborted: {}", plan.campaignId(), e.getMessage());
+                outcome = CampaignStatus.FAILED;
+            }
+            campaignRepository.finish(plan.campaignId(), outcome, Instant.now());
+            return campaignRepository.findById(plan.campaignId()).orElseThrow();
+        }
+    }
+
+    public Optional<Campaign> find(UUID campaignId) {
+        return campaignRepository.findById(campaignId);
+    }
+
+    private void stream(JsonParser parser, NotificationOrchestrator.CampaignPlan plan) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(RecipientDto.class);
+        List<RecipientDto> chunk = new ArrayList<>(chunkSize);
+        long rejected = 0;
+        try (MappingIterator<RecipientDto> recipients = reader.readValues(parser)) {
+            while (recipients.hasNextValue()) {
+                RecipientDto recipient = recipients.nextValue();
+                if (isValid(recipient)) {
+                    chunk.add(recipient);
+                } else {
+                    rejected++;
+                }
+                if (chunk.size() == chunkSize) {
+                    commitChunk(plan, chunk, rejected);
+                    chunk.clear();
+                    rejected = 0;
+                }
+            }
+        }
+        if (!chunk.isEmpty() || rejected > 0) {
+            commitChunk(plan, chunk, rejected);
+        }
+    }
+
+    private void commitChunk(NotificationOrchestrator.CampaignPlan plan, List<RecipientDto> chunk, long rejected) {
+        // Parses no faster than the dispatcher sends; waited out here, before the chunk's transaction
+        try {
+            orchestrator.awaitDispatchCapacity(plan.priority());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for dispatch capacity", e);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int accepted = orchestrator.acceptChunk(plan, chunk);
+            campaignRepository.addProgress(plan.campaignId(), accepted, rejected + chunk.size() - accepted, Instant.now());
+        });
+    }
+
+    private static boolean isValid(RecipientDto recipient) {
+        return recipient != null
+            && recipient.getChannel() != null
+            && recipient.getAddress() != null
+            && !recipient.getAddress().isBlank();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.ChannelType;
+
+import java.util.Map;
+
+/**
+ * Parsed form of a {@link com.example.notificationservice.domain.Template}. This is what the
+ * "templates" cache holds; variables are applied per call via {@link #render(Map)}.
+ */
+public record CompiledTemplate(
+    String templateId,
+    ChannelType channelType,
+    TemplateText subject,
+    TemplateText body
+) {
+    public TemplateService.ResolvedTemplate render(Map<String, String> variables) {
+        return new TemplateService.ResolvedTemplate(
+            subject != null ? subject.render(variables) : null,
+            body.render(variables)
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Delivery outcome meters for one delivery path ({@code in-process} or {@code kafka}):
+ * <ul>
+ *   <li>{@code notification.delivery} counter, tagged channel, outcome (sent, retried, deferred, failed) and path</li>
+ *   <li>{@code notification.delivery.latency} timer, from acceptance to a confirmed send, also tagged priority</li>
+ * </ul>
+ * All meters are registered up front, so recording is a map lookup and an increment.
+ */
+public class DeliveryMetrics {
+
+    private final Map<ChannelType, Counter> sent = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, Counter> retried = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, Counter> deferred = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, Counter> failed = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, Map<NotificationPriority, Timer>> latency = new EnumMap<>(ChannelType.class);
+
+    public DeliveryMetrics(MeterRegistry meterRegistry, String path) {
+        for (ChannelType channel : ChannelType.values()) {
+            sent.put(channel, counter(meterRegistry, channel, "sent", path));
+            retried.put(channel, counter(meterRegistry, channel, "retried", path));
+            deferred.put(channel, counter(meterRegistry, channel, "deferred", path));
+            failed.put(channel, counter(meterRegistry, channel, "failed", path));
+            Map<NotificationPriority, Timer> byPriority = new EnumMap<>(NotificationPriority.class);
+            for (NotificationPriority priority : NotificationPriority.values()) {
+                byPriority.put(priority, Timer.builder("notification.delivery.latency")
+                    .description("Time from acceptance to a confirmed send")
+                    .tag("channel", channel.name())
+                    .tag("priority", priority.name())
+                    .tag("path", path)
+                    .register(meterRegistry));
+            }
+            latency.put(channel, byPriority);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, ChannelType channel, String outcome, String path) {
+        return Counter.builder("notification.delivery")
+            .description("Delivery attempts by outcome")
+            .tag("channel", channel.name())
+            .tag("outcome", outcome)
+            .tag("path", path)
+            .register(meterRegistry);
+    }
+
+    public void sent(ChannelType channel, NotificationPriority priority, Instant acceptedAt) {
+        sent.get(channel).increment();
+        if (acceptedAt != null) {
+            NotificationPriority lane = priority != null ? priority : NotificationPriority.NORMAL;
+            latency.get(channel).get(lane).record(Duration.between(acceptedAt, Instant.now()));
+        }
+    }
+
+    public void retried(ChannelType channel) {
+        retried.get(channel).increment();
+    }
+
+    public void deferred(ChannelType channel) {
+        deferred.get(channel).increment();
+    }
+
+    public void failed(ChannelType channel) {
+        failed.get(channel).increment();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.IdempotencyRecord;
+import com.example.notificationservice.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code POST /notifications} idempotent per {@code Idempotency-Key}. Lookups go to a Caffeine
+ * cache first, then the {@code idempotency_keys} table. Concurrent requests with the same key in this
+ * instance collapse onto the first one; across instances, the record is inserted in the same
+ * transaction as the accepted notifications, so the loser of a race rolls back on the unique key and
+ * replays the winner's response instead.
+ * <p>
+ * A duplicate waits at most {@code wait-timeout} for the request it collapsed onto, then gets a 409
+ * ({@code IN_PROGRESS}) and may retry later, so a stuck request cannot pin a thread per duplicate.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final StoredResponse IN_PROGRESS = new StoredResponse(409, null, "IN_PROGRESS");
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Cache<String, StoredResponse> cache;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${notification.idempotency.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${notification.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${notification.idempotency.cache-size:100000}") long cacheSize,
+                              @Value("${notification.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.waitTimeoutMs = waitTimeout.toMillis();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Returns the stored response for {@code key}, or runs {@code action} and stores its response if
+     * it succeeded (2xx). Failed responses are not stored, so the client may retry them.
+     */
+    public Outcome execute(String key, Supplier<StoredResponse> action) {
+        StoredResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return new Outcome(cached, true);
+        }
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            StoredResponse response;
+            try {
+                response = leader.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Idempotency key {} still in progress after {} ms", key, waitTimeoutMs);
+                return new Outcome(IN_PROGRESS, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Outcome(IN_PROGRESS, false);
+            } catch (ExecutionException e) {
+                response = null;
+            }
+            // The leader's response is only shared if it was stored; otherwise this request runs on its own
+            return response != null && response.isSuccess() ? new Outcome(response, true) : execute(key, action);
+        }
+        Outcome outcome;
+        try {
+            outcome = lookupOrRun(key, action);
+        } catch (RuntimeException e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        // Deregister before waking followers, so one that falls through to execute() starts afresh
+        inFlight.remove(key, mine);
+        mine.complete(outcome.response());
+        return outcome;
+    }
+
+    private Outcome lookupOrRun(String key, Supplier<StoredResponse> action) {
+        Optional<StoredResponse> stored = load(key);
+        if (stored.isPresent()) {
+            return new Outcome(stored.get(), true);
+        }
+        try {
+            StoredResponse response = transactionTemplate.execute(status -> {
+                StoredResponse result = action.get();
+                if (!result.isSuccess()) {
+                    status.setRollbackOnly();
+                    return result;
+                }
+                // An expired record the cleanup job has not purged yet would fail the insert on the key
+                repository.deleteIfExpired(key, Instant.now());
+                repository.saveAndFlush(toRecord(key, result));
+                return result;
+            });
+            if (response.isSuccess()) {
+                cache.put(key, response);
+            }
+            return new Outcome(response, false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed this key first; its accept stands and ours was rolled back
+            log.debug("Idempotency key {} raced with another instance", key);
+            return load(key).map(r -> new Outcome(r, true)).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<StoredResponse> load(String key) {
+        Instant now = Instant.now();
+        return repository.findById(key)
+            .filter(r -> r.getExpiresAt().isAfter(now))
+            .map(r -> {
+                StoredResponse response = new StoredResponse(r.getHttpStatus(), r.getNotificationId(), r.getStatus());
+                cache.put(key, response);
+                return response;
+            });
+    }
+
+    private IdempotencyRecord toRecord(String key, StoredResponse response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKey(key);
+        record.setHttpStatus(response.httpStatus());
+        record.setNotificationId(response.notificationId());
+        record.setStatus(response.status());
+        record.setExpiresAt(Instant.now().plus(ttl));
+        return record;
+    }
+
+    /**
+     * Deletes expired keys in batches so a large backlog never turns into one long-running delete.
+     */
+    @Scheduled(fixedDelayString = "${notification.idempotency.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        long purged = 0;
+        List<String> expired;
+        do {
+            expired = repository.findExpiredKeys(now, PageRequest.of(0, cleanupBatchSize));
+            if (!expired.isEmpty()) {
+                repository.deleteAllByIdInBatch(expired);
+                purged += expired.size();
+            }
+        } while (expired.size() == cleanupBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    public record StoredResponse(int httpStatus, UUID notificationId, String status) {
+        boolean isSuccess() {
+            return httpStatus >= 200 && httpStatus < 300;
+        }
+    }
+
+    public record Outcome(StoredResponse response, boolean replayed) {}
+}
@@ -2,77 +2,136 @@ package com.example.notificationservice.service;
 
 import com.example.notificationservice.channel.ChannelRegistry;
 import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.channel.SendResult;
 import com.example.notificationservice.domain.Notification;
-import com.example.notificationservice.domain.NotificationStatus;
-import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.domain.NotificationPriority;
+import com.example.notificationservice.repository.StatusUpdate;
+import com.example.notificationservice.service.dispatch.PriorityDispatcher;
+import com.example.notificationservice.service.retry.RetryScheduler;
+import com.example.notificationservice.service.scheduling.ScheduledDeliveryEngine;
+import com.example.notificationservice.service.status.StatusWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * When Kafka is disabled, sends notifications in-process asynchronously.
+ * When Kafka is disabled, sends notifications in-process asynchronously, through the
+ * {@link PriorityDispatcher} lane for their priority. Failed sends are parked with the
+ * {@link ScheduledDeliveryEngine} until the {@link RetryScheduler}'s backoff elapses, then retried (in
+ * the same lane), until {@code notification.consumer.max-retries} is reached; sends a channel refuses
+ * outright (open circuit) are parked there too, without counting a retry.
+ * Outcomes are written back through the {@link StatusWriteBehind}, never by loading the row.
  */
 @Component
 public class InProcessNotificationSender {
 
     private static final Logger log = LoggerFactory.getLogger(InProcessNotificationSender.class);
 
-    private final NotificationRepository notificationRepository;
     private final ChannelRegistry channelRegistry;
+    private final PriorityDispatcher dispatcher;
+    private final RetryScheduler retryScheduler;
+    private final ScheduledDeliveryEngine scheduledDeliveryEngine;
+    private final StatusWriteBehind statusWriter;
+    private final DeliveryMetrics deliveryMetrics;
 
-    public InProcessNotificationSender(NotificationRepository notificationRepository,
-                                       ChannelRegistry channelRegistry) {
-        this.notificationRepository = notificationRepository;
+    public InProcessNotificationSender(ChannelRegistry channelRegistry,
+                                       PriorityDispatcher dispatcher,
+                                       RetryScheduler retryScheduler,
+                                       @Lazy ScheduledDeliveryEngine scheduledDeliveryEngine,
+                                       StatusWriteBehind statusWriter,
+                                       MeterRegistry meterRegistry) {
         this.channelRegistry = channelRegistry;
+        this.dispatcher = dispatcher;
+        this.retryScheduler = retryScheduler;
+        this.scheduledDeliveryEngine = scheduledDeliveryEngine;
+        this.statusWriter = statusWriter;
+        this.deliveryMetrics = new DeliveryMetrics(meterRegistry, "in-process");
     }
 
-    @Async
     public void sendAsync(Notification n) {
-        Optional<NotificationChannel> channelOpt = channelRegistry.getChannel(n.getChannel());
+        dispatch(new NotificationPayload(
+            n.getId(),
+            n.getChannel(),
+            n.getRecipient(),
+            n.getSubject(),
+            n.getBody(),
+            n.getRetryCount()
+        ), n.getPriority(), n.getDueAt() != null ? n.getDueAt() : n.getCreatedAt());
+    }
+
+    private void dispatch(NotificationPayload payload, NotificationPriority priority, Instant acceptedAt) {
+        dispatcher.submit(priority, payload.channel(), () -> send(payload, priority, acceptedAt), () -> park(payload));
+    }
+
+    /**
+     * A send the dispatcher dropped on shutdown: parked as SCHEDULED and due now, so the next instance
+     * to start, or another one's overdue sweep, picks it up.
+     */
+    private void park(NotificationPayload payload) {
+        statusWriter.submit(StatusUpdate.deferred(payload.notificationId(), "Not sent before shutdown",
+            payload.retryCount(), Instant.now()));
+    }
+
+    /** Runs before the status writer stops, so the parked rows are still written. */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    private CompletableFuture<?> send(NotificationPayload payload, NotificationPriority priority, Instant acceptedAt) {
+        Optional<NotificationChannel> channelOpt = channelRegistry.getChannel(payload.channel());
         if (channelOpt.isEmpty()) {
-            fail(n, "Channel not supported: " + n.getChannel());
-            return;
+            fail(payload, "Channel not supported: " + payload.channel());
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return channelOpt.get().send(payload)
+                .exceptionally(e -> SendResult.failure(e.getMessage()))
+                .thenAccept(result -> onResult(payload, priority, acceptedAt, result));
+        } catch (Exception e) {
+            onResult(payload, priority, acceptedAt, SendResult.failure(e.getMessage()));
+            return CompletableFuture.completedFuture(null);
         }
-        CompletableFuture<SendResult> future = channelOpt.get().send(
-            new com.example.notificationservice.channel.NotificationPayload(
-                n.getId(),
-                n.getChannel(),
-                n.getRecipient(),
-                n.getSubject(),
-                n.getBody(),
-                n.getRetryCount()
-            )
-        );
-        future.thenAccept(result -> updateNotification(n.getId(), result));
     }
 
-    @Transactional
-    public void updateNotification(java.util.UUID id, SendResult result) {
-        notificationRepository.findById(id).ifPresent(n -> {
-            if (result.success()) {
-                n.setStatus(NotificationStatus.SENT);
-                n.setSentAt(Instant.now());
-                n.setExternalId(result.externalId());
-                n.setErrorMessage(null);
-            } else {
-                n.setStatus(NotificationStatus.FAILED);
-                n.setErrorMessage(result.errorMessage());
-            }
-            notificationRepository.save(n);
-            log.info("Notification {} updated to {}", n.getId(), n.getStatus());
-        });
+    private void onResult(NotificationPayload payload, NotificationPriority priority, Instant acceptedAt,
+                          SendResult result) {
+        if (result.success()) {
+            statusWriter.submit(StatusUpdate.sent(payload.notificationId(), result.externalId(), payload.retryCount()));
+            deliveryMetrics.sent(payload.channel(), priority, acceptedAt);
+            log.info("Notification {} sent via {}", payload.notificationId(), payload.channel());
+            return;
+        }
+        if (result.unavailable()) {
+            scheduledDeliveryEngine.defer(payload.notificationId(), Instant.now().plus(result.retryAfter()),
+                result.errorMessage(), payload.retryCount());
+            deliveryMetrics.deferred(payload.channel());
+            log.debug("Deferring notification {}: {}", payload.notificationId(), result.errorMessage());
+            return;
+        }
+        int failures = payload.retryCount() + 1;
+        if (result.rejected() || !retryScheduler.shouldRetry(failures)) {
+            fail(payload.withRetryCount(failures), result.errorMessage());
+            return;
+        }
+        scheduledDeliveryEngine.retry(payload.notificationId(), retryScheduler.nextAttempt(failures, result.retryAfter()),
+            result.errorMessage(), failures);
+        deliveryMetrics.retried(payload.channel());
+        log.warn("Notification {} failed (retry {}/{}): {}", payload.notificationId(), failures,
+            retryScheduler.getMaxRetries(), result.errorMessage());
     }
 
-    private void fail(Notification n, String errorMessage) {
-        n.setStatus(NotificationStatus.FAILED);
-        n.setErrorMessage(errorMessage);
-        notificationRepository.save(n);
+    private void fail(NotificationPayload payload, String errorMessage) {
+        statusWriter.submit(StatusUpdate.failed(payload.notificationId(), errorMessage, payload.retryCount()));
+        deliveryMetrics.failed(payload.channel());
+        log.error("Notification {} marked FAILED: {}", payload.notificationId(), errorMessage);
     }
 }
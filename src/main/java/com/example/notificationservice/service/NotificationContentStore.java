@@ -0,0 +1,62 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.NotificationContent;
+import com.example.notificationservice.repository.NotificationContentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores rendered content by address (see {@link NotificationContent#of}) so notifications share it.
+ * New contents are inserted in the caller's transaction with
+ * {@link NotificationContentRepository#insertMissing}. Addresses known to be committed are
+ * remembered, so a campaign's chunks and repeated broadcasts skip the insert after the first.
+ */
+@Component
+public class NotificationContentStore {
+
+    private final NotificationContentRepository contentRepository;
+    private final Cache<UUID, Boolean> stored;
+
+    public NotificationContentStore(NotificationContentRepository contentRepository,
+                                    @Value("${notification.content.known-cache-size:10000}") long knownCacheSize) {
+        this.contentRepository = contentRepository;
+        this.stored = Caffeine.newBuilder().maximumSize(knownCacheSize).build();
+    }
+
+    /**
+     * Makes sure every content is stored and returns references to the rows by id, for notifications of
+     * the current transaction to point at. The references are not loaded: the content is only read
+     * back on dispatch of rows that were not rendered in this process. Must be called inside a
+     * transaction.
+     */
+    public Map<UUID, NotificationContent> store(Collection<NotificationContent> contents) {
+        List<NotificationContent> missing = new ArrayList<>(contents.size());
+        for (NotificationContent content : contents) {
+            if (stored.getIfPresent(content.getId()) == null) {
+                missing.add(content);
+            }
+        }
+        if (!missing.isEmpty()) {
+            contentRepository.insertMissing(missing);
+            TransactionCallbacks.afterCommit(() -> {
+                for (NotificationContent content : missing) {
+                    stored.put(content.getId(), Boolean.TRUE);
+                }
+            });
+        }
+        Map<UUID, NotificationContent> byId = new HashMap<>();
+        for (NotificationContent content : contents) {
+            byId.put(content.getId(), contentRepository.getReferenceById(content.getId()));
+        }
+        return byId;
+    }
+}
@@ -1,20 +1,35 @@
 package com.example.notificationservice.service;
 
+import com.example.notificationservice.api.dto.CampaignRequest;
 import com.example.notificationservice.api.dto.NotificationRequest;
 import com.example.notificationservice.api.dto.RecipientDto;
 import com.example.notificationservice.channel.NotificationPayload;
 import com.example.notificationservice.domain.ChannelType;
 import com.example.notificationservice.domain.Notification;
+import com.example.notificationservice.domain.NotificationContent;
+import com.example.notificationservice.domain.NotificationPriority;
 import com.example.notificationservice.domain.NotificationStatus;
 import com.example.notificationservice.messaging.NotificationEvent;
 import com.example.notificationservice.messaging.NotificationProducer;
 import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.service.dispatch.PriorityDispatcher;
+import com.example.notificationservice.service.scheduling.ScheduledDeliveryEngine;
+import com.example.notificationservice.service.status.NotificationStatusCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -26,6 +41,14 @@ public class NotificationOrchestrator {
     private final NotificationRepository notificationRepository;
     private final NotificationProducer notificationProducer;
     private final InProcessNotificationSender inProcessSender;
+    private final PriorityDispatcher dispatcher;
+    private final ScheduledDeliveryEngine scheduledDeliveryEngine;
+    private final NotificationStatusCache statusCache;
+    private final NotificationContentStore contentStore;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> acceptTimers = new HashMap<>();
+    private final Map<ChannelType, Counter> acceptedCounters = new EnumMap<>(ChannelType.class);
+    private final Map<ChannelType, Counter> scheduledCounters = new EnumMap<>(ChannelType.class);
 
     @Value("${notification.queue.enabled:false}")
     private boolean queueEnabled;
@@ -33,67 +56,227 @@ public class NotificationOrchestrator {
     public NotificationOrchestrator(TemplateService templateService,
                                    NotificationRepository notificationRepository,
                                    NotificationProducer notificationProducer,
-                                   @Lazy InProcessNotificationSender inProcessSender) {
+                                   @Lazy InProcessNotificationSender inProcessSender,
+                                   PriorityDispatcher dispatcher,
+                                   @Lazy ScheduledDeliveryEngine scheduledDeliveryEngine,
+                                   NotificationStatusCache statusCache,
+                                   NotificationContentStore contentStore,
+                                   MeterRegistry meterRegistry) {
         this.templateService = templateService;
         this.notificationRepository = notificationRepository;
         this.notificationProducer = notificationProducer;
         this.inProcessSender = inProcessSender;
+        this.dispatcher = dispatcher;
+        this.scheduledDeliveryEngine = scheduledDeliveryEngine;
+        this.statusCache = statusCache;
+        this.contentStore = contentStore;
+        this.meterRegistry = meterRegistry;
+        for (String outcome : List.of("accepted", "rejected", "error")) {
+            acceptTimers.put(outcome, Timer.builder("notification.accept")
+                .description("Time to render and persist one request (excluding commit)")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+        for (ChannelType channel : ChannelType.values()) {
+            acceptedCounters.put(channel, acceptedCounter(channel, "accepted"));
+            scheduledCounters.put(channel, acceptedCounter(channel, "scheduled"));
+        }
+    }
+
+    private Counter acceptedCounter(ChannelType channel, String mode) {
+        return Counter.builder("notification.accepted")
+            .description("Notifications accepted, by channel and whether they were sent now or scheduled")
+            .tag("channel", channel.name())
+            .tag("mode", mode)
+            .register(meterRegistry);
     }
 
+    /**
+     * Persists one row per channel-recipient pair in its final ACCEPTED state. All rows go out as a
+     * single JDBC batch at commit, together with their outbox events in queue mode; in-process
+     * delivery starts only once the rows are committed. A future {@code scheduledAt} stores the rows
+     * as SCHEDULED instead, to be released by the {@link ScheduledDeliveryEngine}.
+     */
     @Transactional
     public List<Notification> accept(NotificationRequest request) {
-        List<Notification> created = new ArrayList<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            List<Notification> created = acceptAll(request);
+            outcome = "accepted";
+            return created;
+        } catch (IllegalArgumentException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(acceptTimers.get(outcome));
+        }
+    }
+
+    private List<Notification> acceptAll(NotificationRequest request) {
         Map<String, String> variables = request.getVariables() != null ? request.getVariables() : Map.of();
+        NotificationPriority priority = NotificationPriority.parse(request.getPriority());
+        Instant dueAt = parseScheduledAt(request.getScheduledAt());
 
+        // Variables are per request, so each channel renders once however many recipients it has
+        Map<ChannelType, NotificationContent> contentByChannel = new EnumMap<>(ChannelType.class);
+        for (ChannelType channel : request.getChannels()) {
+            for (RecipientDto recipient : request.getRecipients()) {
+                if (recipient.getChannel() == channel) {
+                    contentByChannel.computeIfAbsent(channel,
+                        c -> resolveContent(request.getTemplateId(), c, variables));
+                    break;
+                }
+            }
+        }
+        Map<UUID, NotificationContent> stored = contentStore.store(contentByChannel.values());
+
+        List<Notification> created = new ArrayList<>();
         for (ChannelType channel : request.getChannels()) {
             for (RecipientDto recipient : request.getRecipients()) {
                 if (recipient.getChannel() != channel) continue;
-                ResolvedContent content = resolveContent(request.getTemplateId(), channel, variables);
-                Notification n = createNotification(
+                created.add(createNotification(
                     request.getTemplateId(),
                     channel,
                     recipient.getAddress(),
-                    variables,
-                    request.getPriority(),
-                    content
-                );
-                created.add(notificationRepository.save(n));
+                    priority,
+                    contentByChannel.get(channel),
+                    stored,
+                    dueAt
+                ));
             }
         }
 
-        for (Notification n : created) {
-            if (queueEnabled) {
-                notificationProducer.send(NotificationEvent.from(n));
-            } else {
-                inProcessSender.sendAsync(n);
-            }
-            n.setStatus(NotificationStatus.ACCEPTED);
-        }
         notificationRepository.saveAll(created);
+        dispatchOrSchedule(created, dueAt);
         return created;
     }
 
-    private ResolvedContent resolveContent(String templateId, ChannelType channel, Map<String, String> variables) {
+    /**
+     * Waits until the in-process dispatcher has room in the lane for {@code priority}, so a campaign
+     * is not parsed faster than it is sent. Queue mode needs no wait: the outbox holds the backlog in
+     * the database. Call outside any transaction.
+     */
+    public void awaitDispatchCapacity(NotificationPriority priority) throws InterruptedException {
+        if (!queueEnabled) {
+            dispatcher.awaitCapacity(priority);
+        }
+    }
+
+    /**
+     * Renders each campaign channel once up front; every chunk of the recipient stream reuses it.
+     */
+    public CampaignPlan planCampaign(UUID campaignId, CampaignRequest request) {
+        if (request.getTemplateId() == null || request.getTemplateId().isBlank()) {
+            throw new IllegalArgumentException("templateId is required");
+        }
+        if (request.getChannels() == null || request.getChannels().isEmpty()) {
+            throw new IllegalArgumentException("channels are required");
+        }
+        Map<String, String> variables = request.getVariables() != null ? request.getVariables() : Map.of();
+        Map<ChannelType, NotificationContent> contentByChannel = new EnumMap<>(ChannelType.class);
+        for (ChannelType channel : request.getChannels()) {
+            contentByChannel.put(channel, resolveContent(request.getTemplateId(), channel, variables));
+        }
+        return new CampaignPlan(campaignId, request.getTemplateId(), NotificationPriority.parse(request.getPriority()),
+            contentByChannel, parseScheduledAt(request.getScheduledAt()));
+    }
+
+    /**
+     * Persists one chunk of a campaign as a single batch and dispatches it once the surrounding
+     * transaction commits. Returns the number of recipients accepted; recipients on a channel the
+     * campaign does not target are skipped.
+     */
+    @Transactional
+    public int acceptChunk(CampaignPlan plan, List<RecipientDto> recipients) {
+        Map<UUID, NotificationContent> stored = contentStore.store(plan.contentByChannel().values());
+        List<Notification> created = new ArrayList<>(recipients.size());
+        for (RecipientDto recipient : recipients) {
+            NotificationContent content = plan.contentByChannel().get(recipient.getChannel());
+            if (content == null) continue;
+            Notification n = createNotification(
+                plan.templateId(),
+                recipient.getChannel(),
+                recipient.getAddress(),
+                plan.priority(),
+                content,
+                stored,
+                plan.dueAt()
+            );
+            n.setCampaignId(plan.campaignId());
+            created.add(n);
+        }
+        notificationRepository.saveAll(created);
+        dispatchOrSchedule(created, plan.dueAt());
+        return created.size();
+    }
+
+    /**
+     * Claims the given SCHEDULED notifications and hands the ones this call won to the normal
+     * dispatch path. Returns the number released; ids already released elsewhere are skipped.
+     */
+    @Transactional
+    public int releaseScheduled(Collection<UUID> ids) {
+        List<UUID> claimed = notificationRepository.claimScheduled(ids, Instant.now());
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        List<Notification> released = notificationRepository.findAllWithContentById(claimed);
+        TransactionCallbacks.afterCommit(() -> statusCache.invalidateAll(claimed));
+        dispatch(released);
+        return released.size();
+    }
+
+    private void dispatchOrSchedule(List<Notification> notifications, Instant dueAt) {
+        Map<ChannelType, Counter> counters = dueAt == null ? acceptedCounters : scheduledCounters;
+        for (Notification n : notifications) {
+            counters.get(n.getChannel()).increment();
+        }
+        if (dueAt == null) {
+            dispatch(notifications);
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(notifications.size());
+        for (Notification n : notifications) {
+            ids.add(n.getId());
+        }
+        TransactionCallbacks.afterCommit(() -> scheduledDeliveryEngine.track(ids, dueAt));
+    }
+
+    private void dispatch(List<Notification> notifications) {
+        if (queueEnabled) {
+            List<NotificationEvent> events = new ArrayList<>(notifications.size());
+            for (Notification n : notifications) {
+                events.add(NotificationEvent.from(n));
+            }
+            notificationProducer.sendAll(events);
+        } else {
+            TransactionCallbacks.afterCommit(() -> notifications.forEach(inProcessSender::sendAsync));
+        }
+    }
+
+    private NotificationContent resolveContent(String templateId, ChannelType channel, Map<String, String> variables) {
         try {
             TemplateService.ResolvedTemplate rt = templateService.resolve(templateId, channel, "en", variables);
-            return new ResolvedContent(rt.subject(), rt.body());
+            return NotificationContent.of(rt.subject(), rt.body(), variables);
         } catch (Exception e) {
             throw new IllegalArgumentException("Template resolution failed: " + e.getMessage());
         }
     }
 
     private Notification createNotification(String templateId, ChannelType channel, String recipient,
-                                            Map<String, String> variables, String priority, ResolvedContent content) {
+                                            NotificationPriority priority, NotificationContent rendered,
+                                            Map<UUID, NotificationContent> stored, Instant dueAt) {
         Notification n = new Notification();
         n.setId(UUID.randomUUID());
         n.setTemplateId(templateId);
         n.setChannel(channel);
         n.setRecipient(recipient);
-        n.setVariables(variables);
+        n.setContent(stored.get(rendered.getId()));
+        n.setRenderedContent(rendered);
         n.setPriority(priority);
-        n.setStatus(NotificationStatus.PENDING);
-        n.setSubject(content.subject);
-        n.setBody(content.body);
+        n.setStatus(dueAt != null ? NotificationStatus.SCHEDULED : NotificationStatus.ACCEPTED);
+        n.setDueAt(dueAt);
         n.setRetryCount(0);
         return n;
     }
@@ -109,5 +292,27 @@ public class NotificationOrchestrator {
         );
     }
 
-    private record ResolvedContent(String subject, String body) {}
+    /**
+     * ISO-8601 instant or offset date-time. Returns null (send now) when absent or not in the future.
+     */
+    static Instant parseScheduledAt(String scheduledAt) {
+        if (scheduledAt == null || scheduledAt.isBlank()) {
+            return null;
+        }
+        Instant dueAt;
+        try {
+            dueAt = OffsetDateTime.parse(scheduledAt).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid scheduledAt: " + scheduledAt);
+        }
+        return dueAt.isAfter(Instant.now()) ? dueAt : null;
+    }
+
+    public record CampaignPlan(
+        UUID campaignId,
+        String templateId,
+        NotificationPriority priority,
+        Map<ChannelType, NotificationContent> contentByChannel,
+        Instant dueAt
+    ) {}
 }
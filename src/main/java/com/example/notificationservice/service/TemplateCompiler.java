@@ -0,0 +1,39 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.Template;
+import com.example.notificationservice.repository.TemplateRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads and parses templates. Kept separate from {@link TemplateService} so the cache proxy applies
+ * to every lookup; the cache key covers everything the compiled result depends on.
+ */
+@Component
+public class TemplateCompiler {
+
+    private final TemplateRepository templateRepository;
+
+    public TemplateCompiler(TemplateRepository templateRepository) {
+        this.templateRepository = templateRepository;
+    }
+
+    @Cacheable(cacheNames = "templates", key = "#templateId + '-' + #channelType.name() + '-' + #locale")
+    public CompiledTemplate compile(String templateId, ChannelType channelType, String locale) {
+        Template template = templateRepository.findByIdAndLocaleAndActiveTrue(templateId, locale)
+            .or(() -> templateRepository.findByIdAndActiveTrue(templateId))
+            .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
+
+        if (template.getChannelType() != channelType) {
+            throw new IllegalArgumentException("Template " + templateId + " is not for channel " + channelType);
+        }
+
+        return new CompiledTemplate(
+            template.getId(),
+            template.getChannelType(),
+            template.getSubjectTemplate() != null ? TemplateText.compile(template.getSubjectTemplate()) : null,
+            TemplateText.compile(template.getBodyTemplate())
+        );
+    }
+}
@@ -1,59 +1,44 @@
 package com.example.notificationservice.service;
 
 import com.example.notificationservice.domain.ChannelType;
-import com.example.notificationservice.domain.Template;
-import com.example.notificationservice.repository.TemplateRepository;
-import org.springframework.cache.annotation.Cacheable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * Resolves templates with ${varName} placeholders. Caches template definitions.
+ * Resolves templates with ${varName} placeholders. Compiled templates are cached by
+ * {@link TemplateCompiler}; variables are applied on every call.
  */
 @Service
 public class TemplateService {
 
-    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+    private final TemplateCompiler templateCompiler;
+    private final Map<ChannelType, Timer> renderTimers = new EnumMap<>(ChannelType.class);
 
-    private final TemplateRepository templateRepository;
-
-    public TemplateService(TemplateRepository templateRepository) {
-        this.templateRepository = templateRepository;
+    public TemplateService(TemplateCompiler templateCompiler, MeterRegistry meterRegistry) {
+        this.templateCompiler = templateCompiler;
+        for (ChannelType channel : ChannelType.values()) {
+            renderTimers.put(channel, Timer.builder("notification.template.render")
+                .description("Template lookup (cached compile) and render")
+                .tag("channel", channel.name())
+                .register(meterRegistry));
+        }
     }
 
-    @Cacheable(cacheNames = "templates", key = "#templateId + '-' + #channelType.name() + '-' + #locale")
     public ResolvedTemplate resolve(String templateId, ChannelType channelType, String locale, Map<String, String> variables) {
-        String effectiveLocale = locale != null && !locale.isBlank() ? locale : "en";
-        Template template = templateRepository.findByIdAndLocaleAndActiveTrue(templateId, effectiveLocale)
-            .or(() -> templateRepository.findByIdAndActiveTrue(templateId))
-            .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
-
-        if (template.getChannelType() != channelType) {
-            throw new IllegalArgumentException("Template " + templateId + " is not for channel " + channelType);
-        }
+        return renderTimers.get(channelType).record(() -> compile(templateId, channelType, locale).render(variables));
+    }
 
-        String subject = template.getSubjectTemplate() != null
-            ? substitute(template.getSubjectTemplate(), variables)
-            : null;
-        String body = substitute(template.getBodyTemplate(), variables);
-        return new ResolvedTemplate(subject, body);
+    public CompiledTemplate compile(String templateId, ChannelType channelType, String locale) {
+        String effectiveLocale = locale != null && !locale.isBlank() ? locale : "en";
+        return templateCompiler.compile(templateId, channelType, effectiveLocale);
     }
 
     public static String substitute(String template, Map<String, String> variables) {
-        if (template == null || template.isEmpty()) return template;
-        if (variables == null || variables.isEmpty()) return template;
-        Matcher m = PLACEHOLDER.matcher(template);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String key = m.group(1);
-            String value = variables.getOrDefault(key, "");
-            m.appendReplacement(sb, Matcher.quoteReplacement(value));
-        }
-        m.appendTail(sb);
-        return sb.toString();
+        return TemplateText.compile(template).render(variables);
     }
 
     public record ResolvedTemplate(String subject, String body) {}
@@ -0,0 +1,87 @@
+package com.example.notificationservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template string parsed once into alternating literal and ${varName} segments.
+ * Rendering is a single pass over the segments into a presized builder; no regex.
+ */
+public final class TemplateText {
+
+    private static final String OPEN = "${";
+
+    private final String source;
+    /** literals.length == keys.length + 1; rendered as literals[0] keys[0] literals[1] ... */
+    private final String[] literals;
+    private final String[] keys;
+    private final int literalLength;
+
+    private TemplateText(String source, String[] literals, String[] keys) {
+        this.source = source;
+        this.literals = literals;
+        this.keys = keys;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parse with the same semantics as the former {@code \$\{([^}]+)}} pattern: a placeholder needs a
+     * non-empty name, and an unterminated or empty {@code ${}} is kept as literal text.
+     */
+    public static TemplateText compile(String source) {
+        if (source == null || source.isEmpty()) {
+            return new TemplateText(source, new String[] {source == null ? "" : source}, new String[0]);
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        int literalStart = 0;
+        int from = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, from);
+            if (open < 0) break;
+            int close = source.indexOf('}', open + OPEN.length());
+            if (close < 0) break;
+            if (close == open + OPEN.length()) {
+                from = open + 1;
+                continue;
+            }
+            literals.add(source.substring(literalStart, open));
+            keys.add(source.substring(open + OPEN.length(), close));
+            literalStart = close + 1;
+            from = literalStart;
+        }
+        literals.add(source.substring(literalStart));
+        return new TemplateText(source, literals.toArray(String[]::new), keys.toArray(String[]::new));
+    }
+
+    /**
+     * Render with the given variables. Missing variables render as empty; with no variables at all the
+     * source is returned untouched.
+     */
+    public String render(Map<String, String> variables) {
+        if (source == null || keys.length == 0) return source;
+        if (variables == null || variables.isEmpty()) return source;
+        String[] values = new String[keys.length];
+        int length = literalLength;
+        for (int i = 0; i < keys.length; i++) {
+            String value = variables.get(keys[i]);
+            values[i] = value != null ? value : "";
+            length += values[i].length();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < keys.length; i++) {
+            sb.append(literals[i]).append(values[i]);
+        }
+        sb.append(literals[keys.length]);
+        return sb.toString();
+    }
+
+    public String getSource() { return source; }
+
+    public int getPlaceholderCount() { return keys.length; }
+}
@@ -0,0 +1,26 @@
+package com.example.notificationservice.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work until the current transaction has committed (or runs it now if there is none), so
+ * nothing is dispatched for rows another thread cannot see yet.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
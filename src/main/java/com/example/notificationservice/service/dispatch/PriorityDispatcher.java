@@ -0,0 +1,325 @@
+package com.example.notificationservice.service.dispatch;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process dispatch queue with one lane per {@link NotificationPriority}. Work is queued per lane and
+ * channel, and at most {@code max-in-flight-per-channel} sends per channel are outstanding at once, so
+ * a campaign's backlog waits here rather than in the channel's rate-limit schedule, where an OTP would
+ * have to queue behind all of it.
+ * <p>
+ * Whenever a channel has room, the next send is picked by smooth weighted round-robin over the lanes
+ * that have work for a free channel ({@code weights}, HIGH:NORMAL:LOW). Every weight is at least 1, so a
+ * backlogged lane always gets its share: a flood of OTPs slows a campaign down but cannot stall it.
+ * Within a lane, sends are FIFO per channel and channels take turns.
+ * <p>
+ * Each lane holds about {@code lane-capacity} sends. {@link #submit} itself never blocks, since it runs
+ * in after-commit callbacks that still hold a connection; bulk producers call {@link #awaitCapacity}
+ * before producing more, outside any transaction. Sends still queued when the dispatcher stops are
+ * handed back through their {@code abandon} callback.
+ */
+@Component
+public class PriorityDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PriorityDispatcher.class);
+
+    private static final NotificationPriority[] LANES = NotificationPriority.values();
+    private static final ChannelType[] CHANNELS = ChannelType.values();
+
+    private final int maxInFlightPerChannel;
+    private final int laneCapacity;
+    private final int[] weights = new int[LANES.length];
+    /** Smooth weighted round-robin state: each lane's running credit. */
+    private final int[] credit = new int[LANES.length];
+    /** Per lane, the channel to look at first on its next turn. */
+    private final int[] channelCursor = new int[LANES.length];
+    private final ArrayDeque<Task>[][] queues;
+    private final int[] queuedPerLane = new int[LANES.length];
+    private final int[] inFlight = new int[CHANNELS.length];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition runnable = lock.newCondition();
+    private final Condition[] notFull = new Condition[LANES.length];
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Map<NotificationPriority, Timer> waitTimers = new EnumMap<>(NotificationPriority.class);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PriorityDispatcher(MeterRegistry meterRegistry,
+                              @Value("${notification.dispatch.threads:2}") int threads,
+                              @Value("${notification.dispatch.max-in-flight-per-channel:256}") int maxInFlightPerChannel,
+                              @Value("${notification.dispatch.lane-capacity:10000}") int laneCapacity,
+                              @Value("${notification.dispatch.weights.high:8}") int highWeight,
+                              @Value("${notification.dispatch.weights.normal:3}") int normalWeight,
+                              @Value("${notification.dispatch.weights.low:1}") int lowWeight) {
+        if (highWeight < 1 || normalWeight < 1 || lowWeight < 1) {
+            throw new IllegalArgumentException("notification.dispatch.weights must all be at least 1");
+        }
+        this.maxInFlightPerChannel = Math.max(1, maxInFlightPerChannel);
+        this.laneCapacity = Math.max(1, laneCapacity);
+        this.weights[NotificationPriority.HIGH.ordinal()] = highWeight;
+        this.weights[NotificationPriority.NORMAL.ordinal()] = normalWeight;
+        this.weights[NotificationPriority.LOW.ordinal()] = lowWeight;
+        this.queues = new ArrayDeque[LANES.length][CHANNELS.length];
+        for (int lane = 0; lane < LANES.length; lane++) {
+            notFull[lane] = lock.newCondition();
+            for (int channel = 0; channel < CHANNELS.length; channel++) {
+                queues[lane][channel] = new ArrayDeque<>();
+            }
+        }
+
+        for (NotificationPriority priority : LANES) {
+            waitTimers.put(priority, Timer.builder("notification.dispatch.wait")
+                .description("Time a send spent queued in its priority lane")
+                .tag("priority", priority.name())
+                .register(meterRegistry));
+            Gauge.builder("notification.dispatch.queued", this, d -> d.queued(priority))
+                .description("Sends waiting in a priority lane")
+                .tag("priority", priority.name())
+                .register(meterRegistry);
+        }
+        for (ChannelType channel : CHANNELS) {
+            Gauge.builder("notification.dispatch.in-flight", this, d -> d.inFlight(channel))
+                .description("Sends handed to a channel and not yet completed")
+                .tag("channel", channel.name())
+                .register(meterRegistry);
+        }
+
+        for (int i = 1; i <= Math.max(1, threads); i++) {
+            Thread worker = new Thread(this::run, "dispatch-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a send. {@code send} starts it and returns a future that completes when the channel is
+     * done with it (successfully or not); until then it counts against the channel's in-flight limit.
+     * {@code abandon} runs instead if the dispatcher stops before the send started.
+     */
+    public void submit(NotificationPriority priority, ChannelType channel, Supplier<CompletableFuture<?>> send,
+                       Runnable abandon) {
+        NotificationPriority lane = priority != null ? priority : NotificationPriority.NORMAL;
+        lock.lock();
+        try {
+            if (running) {
+                queues[lane.ordinal()][channel.ordinal()].addLast(new Task(lane, channel, send, abandon, System.nanoTime()));
+                queuedPerLane[lane.ordinal()]++;
+                if (inFlight[channel.ordinal()] < maxInFlightPerChannel) {
+                    runnable.signal();
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        abandon.run();
+    }
+
+    /**
+     * Blocks while the lane is at {@code lane-capacity}, so a bulk producer goes no faster than its
+     * sends drain. Must not be called while holding a transaction.
+     */
+    public void awaitCapacity(NotificationPriority priority) throws InterruptedException {
+        int lane = (priority != null ? priority : NotificationPriority.NORMAL).ordinal();
+        lock.lock();
+        try {
+            while (running && queuedPerLane[lane] >= laneCapacity) {
+                notFull[lane].await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = next()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    runnable.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            start(task);
+        }
+    }
+
+    private void start(Task task) {
+        waitTimers.get(task.priority()).record(System.nanoTime() - task.queuedAt(), TimeUnit.NANOSECONDS);
+        CompletableFuture<?> done;
+        try {
+            done = task.send().get();
+        } catch (RuntimeException e) {
+            log.error("Dispatch of a {} {} send failed to start: {}", task.priority(), task.channel(), e.getMessage(), e);
+            done = CompletableFuture.completedFuture(null);
+        }
+        done.whenComplete((r, e) -> release(task.channel()));
+    }
+
+    private void release(ChannelType channel) {
+        lock.lock();
+        try {
+            inFlight[channel.ordinal()]--;
+            runnable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks the next send and takes an in-flight slot for it, or returns null if nothing is runnable.
+     * Caller holds the lock.
+     */
+    private Task next() {
+        int totalWeight = 0;
+        int chosen = -1;
+        for (int lane = 0; lane < LANES.length; lane++) {
+            if (!runnable(lane)) {
+                continue;
+            }
+            credit[lane] += weights[lane];
+            totalWeight += weights[lane];
+            if (chosen < 0 || credit[lane] > credit[chosen]) {
+                chosen = lane;
+            }
+        }
+        if (chosen < 0) {
+            return null;
+        }
+        credit[chosen] -= totalWeight;
+
+        for (int i = 0; i < CHANNELS.length; i++) {
+            int channel = (channelCursor[chosen] + i) % CHANNELS.length;
+            ArrayDeque<Task> queue = queues[chosen][channel];
+            if (!queue.isEmpty() && inFlight[channel] < maxInFlightPerChannel) {
+                channelCursor[chosen] = (channel + 1) % CHANNELS.length;
+                if (queuedPerLane[chosen]-- == laneCapacity) {
+                    notFull[chosen].signalAll();
+                }
+                inFlight[channel]++;
+                if (hasRunnable()) {
+                    // Let another worker start the next send while this one runs
+                    runnable.signal();
+                }
+                return queue.pollFirst();
+            }
+        }
+        throw new IllegalStateException("Lane " + LANES[chosen] + " was runnable but had no task");
+    }
+
+    private boolean hasRunnable() {
+        for (int lane = 0; lane < LANES.length; lane++) {
+            if (runnable(lane)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether the lane has work for a channel with a free in-flight slot. */
+    private boolean runnable(int lane) {
+        if (queuedPerLane[lane] == 0) {
+            return false;
+        }
+        for (int channel = 0; channel < CHANNELS.length; channel++) {
+            if (!queues[lane][channel].isEmpty() && inFlight[channel] < maxInFlightPerChannel) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int queued(NotificationPriority priority) {
+        lock.lock();
+        try {
+            return queuedPerLane[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int inFlight(ChannelType channel) {
+        lock.lock();
+        try {
+            return inFlight[channel.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the workers. Sends already started run to completion; sends still queued are taken out and
+     * their {@code abandon} callbacks run, as are those of any send submitted from now on. Safe to call
+     * more than once.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            runnable.signalAll();
+            for (Condition condition : notFull) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<Task> left = new ArrayList<>();
+        lock.lock();
+        try {
+            for (int lane = 0; lane < LANES.length; lane++) {
+                for (ArrayDeque<Task> queue : queues[lane]) {
+                    left.addAll(queue);
+                    queue.clear();
+                }
+                queuedPerLane[lane] = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!left.isEmpty()) {
+            log.warn("Dispatcher stopped with {} sends still queued; handing them back", left.size());
+        }
+        for (Task task : left) {
+            try {
+                task.abandon().run();
+            } catch (RuntimeException e) {
+                log.error("Could not hand back a queued {} {} send: {}", task.priority(), task.channel(), e.getMessage());
+            }
+        }
+    }
+
+    private record Task(NotificationPriority priority, ChannelType channel, Supplier<CompletableFuture<?>> send,
+                        Runnable abandon, long queuedAt) {}
+}
@@ -0,0 +1,175 @@
+package com.example.notificationservice.service.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel: level 0 has {@code wheelSize} slots of one tick each, every higher level
+ * has slots as wide as a full rotation of the level below. Scheduling is O(1) (a lock-free enqueue,
+ * filed into a slot by the ticker), and each tick only touches the slot that is due, so cost does not
+ * grow with the number of pending timers. Entries in higher levels cascade down as their slot comes up.
+ * <p>
+ * One daemon thread advances the wheel; expired tasks are handed to {@code taskExecutor}. Deadlines are
+ * rounded up to the next tick, so a timer fires up to one tick late but never early.
+ */
+public class HierarchicalTimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(HierarchicalTimingWheel.class);
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+    private final Node[][] slots;
+    private final long[] spanMs;
+    private final Executor taskExecutor;
+    private final ConcurrentLinkedQueue<Node> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Thread ticker;
+
+    /** Start of the tick currently being processed, in ms; only touched by the ticker thread. */
+    private long currentTime;
+    private volatile boolean running = true;
+
+    public HierarchicalTimingWheel(String name, long tickMs, int wheelSize, int levels, Executor taskExecutor) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) throw new IllegalArgumentException("Invalid wheel geometry");
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.slots = new Node[levels][wheelSize];
+        this.spanMs = new long[levels + 1];
+        long span = tickMs;
+        for (int l = 0; l <= levels; l++) {
+            spanMs[l] = span;
+            span = span > Long.MAX_VALUE / wheelSize ? Long.MAX_VALUE : span * wheelSize;
+        }
+        this.taskExecutor = taskExecutor;
+        this.currentTime = now() / tickMs * tickMs;
+        this.ticker = new Thread(this::run, name);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public void schedule(long delay, TimeUnit unit, Runnable task) {
+        long deadline = now() + unit.toMillis(delay);
+        incoming.add(new Node((deadline + tickMs - 1) / tickMs * tickMs, task));
+        size.incrementAndGet();
+    }
+
+    /** Timers scheduled and not yet handed to the executor. */
+    public int size() {
+        return size.get();
+    }
+
+    public void stop() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                long now = now();
+                while (currentTime + tickMs <= now) {
+                    drainIncoming();
+                    advance();
+                }
+                drainIncoming();
+                TimeUnit.MILLISECONDS.sleep(Math.max(1, currentTime + tickMs - now()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Timing wheel {} tick failed: {}", ticker.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void drainIncoming() {
+        Node node;
+        while ((node = incoming.poll()) != null) {
+            place(node);
+        }
+    }
+
+    /** Move to the next tick, cascading higher levels whose slot boundary we just crossed. */
+    private void advance() {
+        currentTime += tickMs;
+        for (int l = 1; l < levels && currentTime % spanMs[l] == 0; l++) {
+            int index = slotIndex(l, currentTime);
+            Node node = slots[l][index];
+            slots[l][index] = null;
+            while (node != null) {
+                Node next = node.next;
+                node.next = null;
+                place(node);
+                node = next;
+            }
+        }
+        expire(0, slotIndex(0, currentTime));
+    }
+
+    private void place(Node node) {
+        long delta = node.deadline - currentTime;
+        if (delta <= 0) {
+            fire(node);
+            return;
+        }
+        int level = 0;
+        while (level < levels - 1 && delta >= spanMs[level + 1]) {
+            level++;
+        }
+        // Beyond the top level's horizon: park in the furthest slot and re-cascade from there
+        long target = Math.min(node.deadline, currentTime + spanMs[level + 1] - spanMs[level]);
+        int index = slotIndex(level, target);
+        node.next = slots[level][index];
+        slots[level][index] = node;
+    }
+
+    private void expire(int level, int index) {
+        Node node = slots[level][index];
+        slots[level][index] = null;
+        while (node != null) {
+            Node next = node.next;
+            node.next = null;
+            if (node.deadline <= currentTime) {
+                fire(node);
+            } else {
+                place(node);
+            }
+            node = next;
+        }
+    }
+
+    private void fire(Node node) {
+        size.decrementAndGet();
+        try {
+            taskExecutor.execute(node.task);
+        } catch (RuntimeException e) {
+            log.error("Timing wheel {} could not run task: {}", ticker.getName(), e.getMessage());
+        }
+    }
+
+    private int slotIndex(int level, long time) {
+        return (int) ((time / spanMs[level]) % wheelSize);
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private static final class Node {
+        final long deadline;
+        final Runnable task;
+        Node next;
+
+        Node(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.notificationservice.service.retry;
+
+import com.example.notificationservice.service.scheduling.ScheduledDeliveryEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When failed sends are tried again, shared by the in-process and Kafka paths. Backoff is exponential
+ * with equal jitter ({@code base * 2^(n-1)}, capped, half of it randomised) and never shorter than a
+ * provider's Retry-After. The next attempt is stored on the row through
+ * {@link ScheduledDeliveryEngine#retry}, so a pending retry survives a restart; the engine's timing
+ * wheel only makes it fire on time.
+ */
+@Component
+public class RetryScheduler {
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryScheduler(@Value("${notification.consumer.max-retries:3}") int maxRetries,
+                          @Value("${notification.retry.base-delay-ms:1000}") long baseDelayMs,
+                          @Value("${notification.retry.max-delay-ms:300000}") long maxDelayMs) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Whether a notification that has now failed {@code failures} times gets another attempt.
+     */
+    public boolean shouldRetry(int failures) {
+        return failures < maxRetries;
+    }
+
+    /**
+     * When to make the next attempt of a notification that has now failed {@code failures} times: after
+     * the backoff for that count, or the provider's Retry-After if that is longer.
+     */
+    public Instant nextAttempt(int failures, Duration retryAfter) {
+        long delay = Math.max(backoffMs(failures), retryAfter != null ? retryAfter.toMillis() : 0);
+        return Instant.now().plusMillis(delay);
+    }
+
+    long backoffMs(int failures) {
+        int exponent = Math.min(Math.max(failures - 1, 0), 30);
+        long delay = Math.min(maxDelayMs, baseDelayMs << exponent);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.notificationservice.service.scheduling;
+
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.repository.StatusUpdate;
+import com.example.notificationservice.service.NotificationOrchestrator;
+import com.example.notificationservice.service.retry.HierarchicalTimingWheel;
+import com.example.notificationservice.service.status.StatusWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Releases SCHEDULED notifications when they fall due. Only a near-term window lives in memory: a
+ * poller walks {@code (due_at, id)} keyset pages of rows due within the window and arms a timer for
+ * each in a {@link HierarchicalTimingWheel}; everything further out stays in the database until the
+ * window reaches it. Due ids are released in batches through
+ * {@link NotificationOrchestrator#releaseScheduled}, whose conditional claim makes a release
+ * idempotent across instances and overlapping loads.
+ * <p>
+ * The same path takes back sends a channel refused without attempting them (see {@link #defer}), so
+ * they wait in the database for the channel to recover rather than spending retries, and failed sends
+ * waiting out their backoff (see {@link #retry}), so a restart does not lose them.
+ */
+@Component
+public class ScheduledDeliveryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledDeliveryEngine.class);
+
+    /** Sorts after every id, so a cursor of (t, LAST_ID) means "strictly after t". */
+    private static final UUID LAST_ID = new UUID(-1L, -1L);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationOrchestrator orchestrator;
+    private final StatusWriteBehind statusWriter;
+    private final long windowMs;
+    private final int pageSize;
+    private final int releaseBatchSize;
+    private final long releaseRetryMs;
+    private final long overdueGraceMs;
+
+    private final HierarchicalTimingWheel wheel;
+    private final ExecutorService releaseExecutor;
+    private final Map<UUID, Boolean> tracked = new ConcurrentHashMap<>();
+    private final Queue<UUID> due = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Counter releasedCounter;
+    private final Counter deferredCounter;
+    private final Counter retryCounter;
+
+    /** Every SCHEDULED row due at or before this instant has been loaded into the wheel. */
+    private volatile Instant loadedUntil;
+
+    public ScheduledDeliveryEngine(NotificationRepository notificationRepository,
+                                   NotificationOrchestrator orchestrator,
+                                   StatusWriteBehind statusWriter,
+                                   @Value("${notification.scheduling.window-ms:60000}") long windowMs,
+                                   @Value("${notification.scheduling.page-size:1000}") int pageSize,
+                                   @Value("${notification.scheduling.release-batch-size:500}") int releaseBatchSize,
+                                   @Value("${notification.scheduling.release-retry-ms:5000}") long releaseRetryMs,
+                                   @Value("${notification.scheduling.overdue-grace-ms:60000}") long overdueGraceMs,
+                                   @Value("${notification.scheduling.tick-ms:100}") long tickMs,
+                                   @Value("${notification.scheduling.wheel-size:1024}") int wheelSize,
+                                   MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.orchestrator = orchestrator;
+        this.statusWriter = statusWriter;
+        this.windowMs = windowMs;
+        this.pageSize = pageSize;
+        this.releaseBatchSize = releaseBatchSize;
+        this.releaseRetryMs = releaseRetryMs;
+        this.overdueGraceMs = overdueGraceMs;
+        this.releaseExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "scheduled-release");
+            t.setDaemon(true);
+            return t;
+        });
+        // Expiry only enqueues the id, so it runs on the wheel's own thread
+        this.wheel = new HierarchicalTimingWheel("schedule-wheel", tickMs, wheelSize, 3, Runnable::run);
+        this.releasedCounter = Counter.builder("notification.scheduled.released")
+            .description("Scheduled notifications released to dispatch")
+            .register(meterRegistry);
+        this.deferredCounter = Counter.builder("notification.scheduled.deferred")
+            .description("Sends a channel refused without attempting, put back as SCHEDULED")
+            .register(meterRegistry);
+        this.retryCounter = Counter.builder("notification.scheduled.retries")
+            .description("Failed sends put back as SCHEDULED for their next attempt")
+            .register(meterRegistry);
+        Gauge.builder("notification.scheduled.tracked", tracked, Map::size)
+            .description("Scheduled notifications held in the in-memory window")
+            .register(meterRegistry);
+        Gauge.builder("notification.scheduled.due", due, Queue::size)
+            .description("Due notifications waiting for a release batch")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Extends the in-memory window: loads rows that came due since the last pass (or every overdue
+     * row on the first pass after startup) page by page in due-time order. Each later pass also sweeps
+     * rows still SCHEDULED more than {@code overdue-grace-ms} past their due time: another instance
+     * loaded them into its wheel and went away before releasing them.
+     */
+    @Scheduled(fixedDelayString = "${notification.scheduling.poll-interval-ms:10000}")
+    public void loadWindow() {
+        Instant now = Instant.now();
+        Instant horizon = now.plusMillis(windowMs);
+        if (loadedUntil != null) {
+            int stranded = load(Instant.EPOCH, now.minusMillis(overdueGraceMs));
+            if (stranded > 0) {
+                log.warn("Picked up {} overdue scheduled notifications left by another instance", stranded);
+            }
+        }
+        int loaded = load(loadedUntil != null ? loadedUntil : Instant.EPOCH, horizon);
+        loadedUntil = horizon;
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled notifications due by {}", loaded, horizon);
+        }
+    }
+
+    /** Arms every untracked SCHEDULED row due after {@code after} and by {@code until}; returns how many. */
+    private int load(Instant after, Instant until) {
+        Instant cursorDue = after;
+        UUID cursorId = LAST_ID;
+        int loaded = 0;
+        List<NotificationRepository.DueSlot> page;
+        do {
+            page = notificationRepository.findScheduledPage(until, cursorDue, cursorId, PageRequest.of(0, pageSize));
+            for (NotificationRepository.DueSlot slot : page) {
+                if (arm(slot.getId(), slot.getDueAt())) {
+                    loaded++;
+                }
+            }
+            if (!page.isEmpty()) {
+                NotificationRepository.DueSlot last = page.get(page.size() - 1);
+                cursorDue = last.getDueAt();
+                cursorId = last.getId();
+            }
+        } while (page.size() == pageSize);
+        return loaded;
+    }
+
+    /**
+     * Called once newly scheduled rows are committed. Rows due inside the current window are armed
+     * immediately, since the poller may already have passed their due time; later ones are left to
+     * the poller.
+     */
+    public void track(Collection<UUID> ids, Instant dueAt) {
+        if (dueAt.isAfter(Instant.now().plusMillis(windowMs))) {
+            return;
+        }
+        for (UUID id : ids) {
+            arm(id, dueAt);
+        }
+    }
+
+    /**
+     * Puts a notification whose channel refused it without attempting the send back to SCHEDULED for
+     * {@code dueAt}, keeping its retry count, and arms it once that is committed. Completes with whether
+     * the row was parked: not if it had meanwhile been sent or failed by another delivery.
+     */
+    public CompletableFuture<Boolean> defer(UUID id, Instant dueAt, String reason, int retryCount) {
+        return park(id, dueAt, reason, retryCount, deferredCounter);
+    }
+
+    /**
+     * Stores the next attempt of a failed send: SCHEDULED for {@code dueAt} with the failure count as its
+     * retry count, armed once that is committed. Completes with whether the row was parked, as for
+     * {@link #defer}.
+     */
+    public CompletableFuture<Boolean> retry(UUID id, Instant dueAt, String reason, int retryCount) {
+        return park(id, dueAt, reason, retryCount, retryCounter);
+    }
+
+    private CompletableFuture<Boolean> park(UUID id, Instant dueAt, String reason, int retryCount, Counter counter) {
+        return statusWriter.submit(StatusUpdate.deferred(id, reason, retryCount, dueAt)).thenApply(applied -> {
+            if (applied) {
+                counter.increment();
+                // A send released from here may come back before its release has untracked it; arm it
+                // regardless, a duplicate release is a no-op
+                tracked.remove(id);
+                track(List.of(id), dueAt);
+            }
+            return applied;
+        });
+    }
+
+    public int getTrackedCount() {
+        return tracked.size();
+    }
+
+    private boolean arm(UUID id, Instant dueAt) {
+        if (tracked.putIfAbsent(id, Boolean.TRUE) != null) {
+            return false;
+        }
+        long delayMs = Math.max(0, dueAt.toEpochMilli() - System.currentTimeMillis());
+        wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> enqueue(id));
+        return true;
+    }
+
+    private void enqueue(UUID id) {
+        due.add(id);
+        if (draining.compareAndSet(false, true)) {
+            releaseExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<UUID> batch = new ArrayList<>(releaseBatchSize);
+            UUID id;
+            while (batch.size() < releaseBatchSize && (id = due.poll()) != null) {
+                batch.add(id);
+            }
+            if (batch.isEmpty()) {
+                draining.set(false);
+                // An id enqueued between the last poll and the reset would otherwise be stranded
+                if (due.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            release(batch);
+        }
+    }
+
+    private void release(List<UUID> batch) {
+        try {
+            int released = orchestrator.releaseScheduled(batch);
+            releasedCounter.increment(released);
+            log.debug("Released {} of {} scheduled notifications", released, batch.size());
+            batch.forEach(tracked::remove);
+        } catch (Exception e) {
+            log.warn("Releasing {} scheduled notifications failed, retrying in {} ms: {}",
+                batch.size(), releaseRetryMs, e.getMessage());
+            for (UUID id : batch) {
+                wheel.schedule(releaseRetryMs, TimeUnit.MILLISECONDS, () -> enqueue(id));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wheel.stop();
+        releaseExecutor.shutdown();
+    }
+}
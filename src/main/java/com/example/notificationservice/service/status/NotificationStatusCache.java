@@ -0,0 +1,101 @@
+package com.example.notificationservice.service.status;
+
+import com.example.notificationservice.domain.NotificationStatus;
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.repository.NotificationStatusView;
+import com.example.notificationservice.repository.StatusUpdate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Serves {@code GET /notifications/{id}} from memory. A miss reads the status columns only
+ * ({@link NotificationRepository#findStatusById}); after that the entry is kept current by the send
+ * paths, which apply each outcome once it is committed, so repeated polls never reach the database.
+ * <p>
+ * Updates only touch entries that are already cached, and are applied through the same per-key
+ * compute as the loader, so an update committed while a miss is loading is never overwritten by the
+ * older row the loader read.
+ * <p>
+ * Outcomes are only applied in the pod that produced them, so an in-flight entry can fall behind a
+ * send completed elsewhere. Such entries expire after {@code pending-ttl} (a few seconds) and are
+ * re-read; terminal ones cannot change any more and are kept for {@code terminal-ttl}.
+ */
+@Component
+public class NotificationStatusCache {
+
+    private static final Set<NotificationStatus> TERMINAL =
+        EnumSet.of(NotificationStatus.SENT, NotificationStatus.FAILED, NotificationStatus.INVALID);
+
+    private final NotificationRepository notificationRepository;
+    private final Cache<UUID, NotificationStatusView> cache;
+
+    public NotificationStatusCache(NotificationRepository notificationRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notification.status-cache.maximum-size:100000}") long maximumSize,
+                                   @Value("${notification.status-cache.terminal-ttl:5m}") Duration terminalTtl,
+                                   @Value("${notification.status-cache.pending-ttl:3s}") Duration pendingTtl) {
+        this.notificationRepository = notificationRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(expiry(terminalTtl.toNanos(), pendingTtl.toNanos()))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notificationStatus");
+    }
+
+    public Optional<NotificationStatusView> find(UUID id) {
+        return Optional.ofNullable(cache.get(id, key -> notificationRepository.findStatusById(key).orElse(null)));
+    }
+
+    /**
+     * Whether the cache already knows the notification was sent. Never reads the database: an uncached
+     * notification is reported as not sent.
+     */
+    public boolean isKnownSent(UUID id) {
+        NotificationStatusView view = cache.getIfPresent(id);
+        return view != null && view.status() == NotificationStatus.SENT;
+    }
+
+    /** Applies committed outcomes to the cached entries they concern. */
+    public void applyAll(Collection<StatusUpdate> updates) {
+        for (StatusUpdate update : updates) {
+            cache.asMap().computeIfPresent(update.id(), (id, view) -> view.apply(update));
+        }
+    }
+
+    public void invalidateAll(Collection<UUID> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    /** Every write, whether a load or an applied outcome, restarts the clock for the new status. */
+    private static Expiry<UUID, NotificationStatusView> expiry(long terminalNanos, long pendingNanos) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(UUID id, NotificationStatusView view, long now) {
+                return TERMINAL.contains(view.status()) ? terminalNanos : pendingNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(UUID id, NotificationStatusView view, long now, long remaining) {
+                return expireAfterCreate(id, view, now);
+            }
+
+            @Override
+            public long expireAfterRead(UUID id, NotificationStatusView view, long now, long remaining) {
+                return remaining;
+            }
+        };
+    }
+}
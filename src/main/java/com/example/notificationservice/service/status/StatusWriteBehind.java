@@ -0,0 +1,247 @@
+package com.example.notificationservice.service.status;
+
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.repository.StatusUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind for delivery outcomes. Senders {@link #submit} a {@link StatusUpdate} and return
+ * immediately; a single flusher thread drains the queue every {@code flush-interval-ms} (or as soon as
+ * {@code batch-size} updates are waiting), keeps only the last update per notification and writes the
+ * rest with {@link NotificationRepository#applyStatusUpdates} in one transaction. Committed outcomes
+ * are then applied to the {@link NotificationStatusCache}.
+ * <p>
+ * The queue is bounded: once {@code capacity} updates are waiting, submitters block for up to
+ * {@code offer-timeout-ms} and then write their update themselves, so a slow flusher slows the senders
+ * down instead of growing the heap. An update is never dropped: a failed flush retries the same
+ * coalesced batch with exponential backoff (capped at {@code max-backoff-ms}) until it commits, and
+ * while it is failing submitters keep waiting for room instead of writing around it. Everything queued
+ * is flushed on shutdown.
+ */
+@Component
+public class StatusWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusWriteBehind.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationStatusCache statusCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final long maxBackoffNanos;
+
+    private final ConcurrentLinkedQueue<Queued> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Semaphore capacity;
+    private final Thread flusher;
+    private volatile boolean running = true;
+    /** Set while the current batch keeps failing to commit. */
+    private volatile boolean failing;
+
+    private final Timer flushTimer;
+    private final DistributionSummary flushSize;
+    private final Counter coalesced;
+    private final Counter blocked;
+    private final Counter flushFailures;
+
+    public StatusWriteBehind(NotificationRepository notificationRepository,
+                             NotificationStatusCache statusCache,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${notification.status-writer.capacity:10000}") int capacity,
+                             @Value("${notification.status-writer.batch-size:500}") int batchSize,
+                             @Value("${notification.status-writer.flush-interval-ms:50}") long flushIntervalMs,
+                             @Value("${notification.status-writer.offer-timeout-ms:5000}") long offerTimeoutMs,
+                             @Value("${notification.status-writer.max-backoff-ms:5000}") long maxBackoffMs) {
+        this.notificationRepository = notificationRepository;
+        this.statusCache = statusCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxBackoffMs, flushIntervalMs));
+
+        this.flushTimer = Timer.builder("notification.status.flush")
+            .description("Time to write one batch of delivery outcomes")
+            .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("notification.status.flush.size")
+            .description("Rows written per flush")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("notification.status.coalesced")
+            .description("Updates superseded by a later update for the same notification before being written")
+            .register(meterRegistry);
+        this.blocked = Counter.builder("notification.status.blocked")
+            .description("Submits that found the queue full and had to wait")
+            .register(meterRegistry);
+        this.flushFailures = Counter.builder("notification.status.flush.failures")
+            .description("Flush attempts that failed and were retried")
+            .register(meterRegistry);
+        Gauge.builder("notification.status.queued", queued, AtomicInteger::get)
+            .description("Delivery outcomes waiting to be written")
+            .register(meterRegistry);
+
+        this.flusher = new Thread(this::run, "status-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues an outcome. The returned future completes once it has been written: with {@code true} if
+     * this update changed the row, {@code false} if the row's guard rejected it (the notification was
+     * already SENT, say, or does not exist) or a later update for the same notification superseded it.
+     */
+    public CompletableFuture<Boolean> submit(StatusUpdate update) {
+        if (!running || !acquire()) {
+            return writeNow(update);
+        }
+        Queued entry = new Queued(update, new CompletableFuture<>());
+        queue.add(entry);
+        if (queued.incrementAndGet() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return entry.done();
+    }
+
+    private boolean acquire() {
+        if (capacity.tryAcquire()) {
+            return true;
+        }
+        blocked.increment();
+        try {
+            // Writing around a failing flusher would only fail too, so hold the sender back until it recovers
+            do {
+                if (capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } while (failing && running);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private CompletableFuture<Boolean> writeNow(StatusUpdate update) {
+        try {
+            return CompletableFuture.completedFuture(!write(List.of(update)).isEmpty());
+        } catch (RuntimeException e) {
+            log.error("Could not write status {} for notification {}: {}", update.status(), update.id(), e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void run() {
+        while (running || queued.get() > 0) {
+            if (running && queued.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        List<Queued> batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        // The queue is FIFO, so the last entry per id is the newest outcome for that row
+        Map<UUID, StatusUpdate> latest = new LinkedHashMap<>();
+        for (Queued entry : batch) {
+            latest.put(entry.update().id(), entry.update());
+        }
+        coalesced.increment(batch.size() - latest.size());
+
+        Set<StatusUpdate> applied = writeUntilCommitted(latest.values());
+        flushSize.record(latest.size());
+        capacity.release(batch.size());
+        for (Queued entry : batch) {
+            entry.done().complete(applied.contains(entry.update()));
+        }
+    }
+
+    /**
+     * Writes the batch, retrying with capped exponential backoff for as long as it takes. The batch's
+     * capacity stays taken meanwhile, so the queue fills and submitters wait.
+     */
+    private Set<StatusUpdate> writeUntilCommitted(Collection<StatusUpdate> updates) {
+        long backoffNanos = flushIntervalNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Set<StatusUpdate> applied = new HashSet<>(flushTimer.record(() -> write(updates)));
+                if (failing) {
+                    failing = false;
+                    log.info("Status flush of {} updates succeeded after {} attempts", updates.size(), attempt);
+                }
+                return applied;
+            } catch (RuntimeException e) {
+                failing = true;
+                flushFailures.increment();
+                log.warn("Status flush of {} updates failed (attempt {}), retrying in {} ms: {}", updates.size(),
+                    attempt, TimeUnit.NANOSECONDS.toMillis(backoffNanos), e.getMessage());
+                LockSupport.parkNanos(this, backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    private List<Queued> drain() {
+        List<Queued> batch = new ArrayList<>(Math.min(Math.max(queued.get(), 0), batchSize));
+        Queued entry;
+        while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+            batch.add(entry);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private List<StatusUpdate> write(Collection<StatusUpdate> updates) {
+        List<StatusUpdate> applied = transactionTemplate.execute(status -> notificationRepository.applyStatusUpdates(updates));
+        statusCache.applyAll(applied);
+        return applied;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (flusher.isAlive()) {
+            log.warn("Status writer did not drain within 30s; {} updates still queued", queued.get());
+            return;
+        }
+        // Picks up anything a submitter enqueued while the flusher was exiting
+        while (!queue.isEmpty()) {
+            flushPending();
+        }
+    }
+
+    private record Queued(StatusUpdate update, CompletableFuture<Boolean> done) {}
+}
@@ -0,0 +1,65 @@
+package com.example.notificationservice.api;
+
+import com.example.notificationservice.repository.CampaignRepository;
+import com.example.notificationservice.service.InProcessNotificationSender;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CampaignControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private CampaignRepository campaignRepository;
+
+    /** Dispatch is out of scope; it would also call the (unreachable) providers. */
+    @MockBean
+    private InProcessNotificationSender inProcessSender;
+
+    @Test
+    void reusedCampaignIdIsAConflict() throws Exception {
+        UUID campaignId = UUID.randomUUID();
+        upload(campaignId).andExpect(status().isAccepted());
+
+        upload(campaignId)
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.status").value("DUPLICATE"));
+    }
+
+    @Test
+    void uploadLosingTheInsertRaceIsAConflict() throws Exception {
+        UUID campaignId = UUID.randomUUID();
+        upload(campaignId).andExpect(status().isAccepted());
+        // A concurrent upload of the same id that passed the existence check before the first one inserted;
+        // once its insert fails, the row is there
+        doReturn(false).doReturn(true).when(campaignRepository).existsById(campaignId);
+
+        upload(campaignId)
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.status").value("DUPLICATE"));
+    }
+
+    private ResultActions upload(UUID campaignId) throws Exception {
+        String body = """
+            {"campaignId": "%s", "templateId": "welcome-sms", "channels": ["SMS"], "variables": {"userName": "Ada", "code": "1234"}}
+            {"channel": "SMS", "address": "+15550000200"}
+            """.formatted(campaignId);
+        return mockMvc.perform(post("/api/v1/campaigns").contentType("application/x-ndjson").content(body));
+    }
+}
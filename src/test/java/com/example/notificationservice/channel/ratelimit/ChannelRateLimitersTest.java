@@ -0,0 +1,80 @@
+package com.example.notificationservice.channel.ratelimit;
+
+import com.example.notificationservice.channel.NotificationChannel;
+import com.example.notificationservice.channel.NotificationPayload;
+import com.example.notificationservice.channel.SendResult;
+import com.example.notificationservice.domain.ChannelType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelRateLimitersTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+        .withProperty("notification.rate-limit.max-wait-ms", "0")
+        .withProperty("notification.channels.sms.rate-limit.account-permits-per-second", "1")
+        .withProperty("notification.channels.sms.rate-limit.account-burst", "2")
+        .withProperty("notification.channels.whatsapp.rate-limit.account-permits-per-second", "1")
+        .withProperty("notification.channels.whatsapp.rate-limit.account-burst", "2")
+        .withProperty("notification.channels.email.rate-limit.account-permits-per-second", "1")
+        .withProperty("notification.channels.email.rate-limit.account-burst", "2");
+    private final ChannelRateLimiters limiters = new ChannelRateLimiters(environment, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        limiters.shutdown();
+    }
+
+    @Test
+    void channelsOnTheSameAccountDrawFromOneBucket() {
+        NotificationChannel sms = limiters.decorate(channel(ChannelType.SMS, "AC123"));
+        NotificationChannel whatsapp = limiters.decorate(channel(ChannelType.WHATSAPP, "AC123"));
+
+        assertThat(limiters.getBuckets()).hasSize(1);
+        assertThat(send(sms).success()).isTrue();
+        assertThat(send(whatsapp).success()).isTrue();
+        // The account's burst of two is spent, whichever channel asks next
+        assertThat(send(sms).isThrottled()).isTrue();
+        assertThat(send(whatsapp).isThrottled()).isTrue();
+    }
+
+    @Test
+    void channelsNamingNoAccountDoNotShare() {
+        NotificationChannel sms = limiters.decorate(channel(ChannelType.SMS, null));
+        NotificationChannel email = limiters.decorate(channel(ChannelType.EMAIL, null));
+
+        assertThat(limiters.getBuckets()).hasSize(2);
+        send(sms);
+        send(sms);
+        assertThat(send(email).success()).isTrue();
+    }
+
+    private static SendResult send(NotificationChannel channel) {
+        return channel.send(new NotificationPayload(UUID.randomUUID(), channel.getChannelType(), "to", null, "body", 0)).join();
+    }
+
+    private static NotificationChannel channel(ChannelType type, String account) {
+        return new NotificationChannel() {
+            @Override
+            public ChannelType getChannelType() {
+                return type;
+            }
+
+            @Override
+            public CompletableFuture<SendResult> send(NotificationPayload payload) {
+                return CompletableFuture.completedFuture(SendResult.ok("ext"));
+            }
+
+            @Override
+            public String getProviderAccount() {
+                return account != null ? account : NotificationChannel.super.getProviderAccount();
+            }
+        };
+    }
+}
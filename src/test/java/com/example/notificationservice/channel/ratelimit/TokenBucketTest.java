@@ -0,0 +1,67 @@
+package com.example.notificationservice.channel.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    /** Two permits a second (one every 500 ms), bursts of two. */
+    private final TokenBucket bucket = new TokenBucket("test", 2, 2, 0.5, 0.5, 0.1);
+
+    @Test
+    void burstIsAvailableAtOnceAndNothingBeyondIt() {
+        assertThat(bucket.tryReserve(0)).isZero();
+        assertThat(bucket.tryReserve(0)).isZero();
+        assertThat(bucket.tryReserve(0)).isEqualTo(-1);
+        // A refused caller books nothing
+        assertThat(bucket.tryReserve(0)).isEqualTo(-1);
+    }
+
+    @Test
+    void callerOverTheBurstIsToldHowLongToWait() {
+        bucket.tryReserve(0);
+        bucket.tryReserve(0);
+
+        assertThat(bucket.waitNanos()).isBetween(millis(400), millis(500));
+        assertThat(bucket.tryReserve(Long.MAX_VALUE)).isBetween(millis(400), millis(500));
+        // Each further caller is booked one interval later
+        assertThat(bucket.tryReserve(Long.MAX_VALUE)).isBetween(millis(900), millis(1000));
+    }
+
+    @Test
+    void permitsRefillAtTheConfiguredRate() throws InterruptedException {
+        bucket.tryReserve(0);
+        bucket.tryReserve(0);
+
+        Thread.sleep(600);
+        assertThat(bucket.tryReserve(0)).isZero();
+        assertThat(bucket.tryReserve(0)).isEqualTo(-1);
+    }
+
+    @Test
+    void cancelledPermitIsHandedBack() {
+        bucket.tryReserve(0);
+        bucket.tryReserve(0);
+        bucket.cancel();
+
+        assertThat(bucket.tryReserve(0)).isZero();
+    }
+
+    @Test
+    void throttlingHalvesTheRateAndHoldsPermitsUntilRetryAfter() {
+        bucket.onThrottled(Duration.ofSeconds(2));
+
+        assertThat(bucket.getRate()).isEqualTo(1.0);
+        assertThat(bucket.waitNanos()).isBetween(millis(1900), millis(2000));
+        bucket.onSuccess();
+        assertThat(bucket.getRate()).isEqualTo(1.1);
+    }
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.notificationservice.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeyOrderedProcessorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("notification-send", 0);
+
+    private final KeyOrderedProcessor processor = new KeyOrderedProcessor(new SimpleMeterRegistry(), 100, Duration.ofSeconds(1));
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, String> consumer = mock(Consumer.class);
+    /** Offsets sent with each commitAsync, and the callbacks still waiting for the broker's answer. */
+    private final List<Long> commits = new ArrayList<>();
+    private final List<Runnable> onSuccess = new ArrayList<>();
+    private final List<Runnable> onFailure = new ArrayList<>();
+    private final List<Long> started = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(consumer.assignment()).thenReturn(Set.of(PARTITION));
+        doAnswer(invocation -> {
+            Map<TopicPartition, OffsetAndMetadata> offsets = invocation.getArgument(0);
+            OffsetCommitCallback callback = invocation.getArgument(1);
+            commits.add(offsets.get(PARTITION).offset());
+            onSuccess.add(() -> callback.onComplete(offsets, null));
+            onFailure.add(() -> callback.onComplete(offsets, new TimeoutException("broker unavailable")));
+            return null;
+        }).when(consumer).commitAsync(any(), any());
+    }
+
+    @Test
+    void outOfOrderCompletionCommitsOnlyUpToTheLowestRecordInFlight() throws InterruptedException {
+        CompletableFuture<Void> first = submit(0, "alice");
+        CompletableFuture<Void> second = submit(1, "bob");
+        CompletableFuture<Void> third = submit(2, "carol");
+
+        third.complete(null);
+        second.complete(null);
+        processor.commit(consumer);
+        assertThat(commits).containsExactly(0L);
+
+        first.complete(null);
+        processor.commit(consumer);
+        assertThat(commits).containsExactly(0L, 3L);
+    }
+
+    @Test
+    void recordsWithTheSameKeyRunOneAfterAnother() throws InterruptedException {
+        CompletableFuture<Void> first = submit(0, "alice");
+        CompletableFuture<Void> other = submit(1, "bob");
+        submit(2, "alice");
+        assertThat(started).containsExactly(0L, 1L);
+
+        other.complete(null);
+        assertThat(started).containsExactly(0L, 1L);
+        first.complete(null);
+        assertThat(started).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    void failedCommitIsSentAgainUntilTheBrokerAcknowledgesIt() throws InterruptedException {
+        submit(0, "alice").complete(null);
+        submit(1, "bob").complete(null);
+
+        processor.commit(consumer);
+        onFailure.get(0).run();
+        processor.commit(consumer);
+        assertThat(commits).containsExactly(2L, 2L);
+
+        onSuccess.get(1).run();
+        processor.commit(consumer);
+        assertThat(commits).containsExactly(2L, 2L);
+
+        submit(2, "carol").complete(null);
+        processor.commit(consumer);
+        assertThat(commits).containsExactly(2L, 2L, 3L);
+    }
+
+    private CompletableFuture<Void> submit(long offset, String key) throws InterruptedException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, key, "event");
+        processor.submit(record, () -> {
+            started.add(offset);
+            return done;
+        });
+        return done;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.notificationservice.messaging;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+class NotificationEventCodecTest {
+
+    private static final NotificationEvent EVENT = new NotificationEvent(UUID.randomUUID(), ChannelType.SMS,
+        "+15550000001", "Grüße", "Your code is 123456 ✓", 300, NotificationPriority.HIGH,
+        Instant.ofEpochMilli(1_700_000_000_123L));
+
+    @Test
+    void roundTripKeepsEveryField() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+
+        assertThat(NotificationEventCodec.isBinary(data)).isTrue();
+        assertThat(NotificationEventCodec.decode(data)).isEqualTo(EVENT);
+    }
+
+    @Test
+    void roundTripKeepsNullFields() {
+        NotificationEvent sparse = new NotificationEvent(UUID.randomUUID(), null, "", null, null, Integer.MAX_VALUE,
+            null, null);
+
+        assertThat(NotificationEventCodec.decode(NotificationEventCodec.encode(sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    void recordWrittenBeforeAcceptedAtDecodesWithoutIt() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+
+        assertThat(NotificationEventCodec.decode(Arrays.copyOf(data, data.length - 8))).isEqualTo(new NotificationEvent(
+            EVENT.notificationId(), EVENT.channel(), EVENT.recipient(), EVENT.subject(), EVENT.body(), EVENT.retryCount(),
+            EVENT.priority(), null));
+    }
+
+    @Test
+    void trailingFieldsFromANewerWriterAreIgnored() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+        byte[] extended = Arrays.copyOf(data, data.length + 3);
+        extended[data.length] = 4;
+
+        assertThat(NotificationEventCodec.decode(extended)).isEqualTo(EVENT);
+    }
+
+    @Test
+    void everyTruncationIsRejected() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+        for (int length = 0; length < data.length; length++) {
+            if (length == data.length - 8) {
+                continue; // a complete record from before acceptedAt
+            }
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThatThrownBy(() -> NotificationEventCodec.decode(truncated))
+                .as("record cut to %d bytes", length)
+                .isInstanceOf(SerializationException.class);
+        }
+    }
+
+    @Test
+    void garbageIsRejectedAsASerializationError() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            byte[] garbage = new byte[2 + random.nextInt(64)];
+            random.nextBytes(garbage);
+            garbage[0] = NotificationEventCodec.MAGIC;
+            garbage[1] = NotificationEventCodec.VERSION;
+            try {
+                NotificationEventCodec.decode(garbage);
+            } catch (SerializationException expected) {
+                // the only acceptable failure
+            } catch (RuntimeException e) {
+                fail("Garbage %s failed with %s", Arrays.toString(garbage), e);
+            }
+        }
+    }
+
+    @Test
+    void lengthPastTheEndOfTheRecordIsRejected() {
+        byte[] record = new byte[23];
+        record[0] = NotificationEventCodec.MAGIC;
+        record[1] = NotificationEventCodec.VERSION;
+        // After the 16-byte id: a channel string claiming Integer.MAX_VALUE - 1 bytes
+        byte[] length = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+        System.arraycopy(length, 0, record, 18, length.length);
+
+        assertThatThrownBy(() -> NotificationEventCodec.decode(record))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void unknownEnumNameIsRejected() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+        byte[] sms = "SMS".getBytes(StandardCharsets.US_ASCII);
+        int at = indexOf(data, sms);
+        System.arraycopy("FAX".getBytes(StandardCharsets.US_ASCII), 0, data, at, sms.length);
+
+        assertThatThrownBy(() -> NotificationEventCodec.decode(data))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("FAX");
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] data = NotificationEventCodec.encode(EVENT);
+        data[1] = NotificationEventCodec.VERSION + 1;
+
+        assertThatThrownBy(() -> NotificationEventCodec.decode(data))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("version " + (NotificationEventCodec.VERSION + 1));
+    }
+
+    @Test
+    void jsonIsNotTakenForBinary() {
+        byte[] json = "{\"notificationId\":\"x\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(NotificationEventCodec.isBinary(json)).isFalse();
+        assertThat(NotificationEventCodec.isBinary(new byte[0])).isFalse();
+        assertThatThrownBy(() -> NotificationEventCodec.decode(json)).isInstanceOf(SerializationException.class);
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i + part.length <= data.length; i++) {
+            if (Arrays.equals(data, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("not found");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.domain.IdempotencyRecord;
+import com.example.notificationservice.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "notification.idempotency.wait-timeout=200ms")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    void expiredKeyThatWasNotPurgedYetCanBeReused() {
+        IdempotencyRecord expired = new IdempotencyRecord();
+        expired.setKey("reused-key");
+        expired.setHttpStatus(202);
+        expired.setNotificationId(UUID.randomUUID());
+        expired.setStatus("ACCEPTED");
+        expired.setExpiresAt(Instant.now().minus(Duration.ofHours(1)));
+        repository.saveAndFlush(expired);
+
+        UUID notificationId = UUID.randomUUID();
+        IdempotencyService.Outcome outcome = idempotencyService.execute("reused-key",
+            () -> new IdempotencyService.StoredResponse(202, notificationId, "ACCEPTED"));
+
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(outcome.response().notificationId()).isEqualTo(notificationId);
+        IdempotencyRecord stored = repository.findById("reused-key").orElseThrow();
+        assertThat(stored.getNotificationId()).isEqualTo(notificationId);
+        assertThat(stored.getExpiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void duplicateOfAStuckRequestGetsConflictAfterTheWaitTimeout() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UUID notificationId = UUID.randomUUID();
+        CompletableFuture<IdempotencyService.Outcome> leader = CompletableFuture.supplyAsync(() ->
+            idempotencyService.execute("slow-key", () -> {
+                running.countDown();
+                await(release);
+                return new IdempotencyService.StoredResponse(202, notificationId, "ACCEPTED");
+            }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        IdempotencyService.Outcome duplicate = idempotencyService.execute("slow-key",
+            () -> new IdempotencyService.StoredResponse(202, UUID.randomUUID(), "ACCEPTED"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(duplicate.response().httpStatus()).isEqualTo(409);
+        assertThat(duplicate.response().status()).isEqualTo("IN_PROGRESS");
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS).response().notificationId()).isEqualTo(notificationId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
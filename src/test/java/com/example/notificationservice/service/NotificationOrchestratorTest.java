@@ -0,0 +1,88 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.api.dto.NotificationRequest;
+import com.example.notificationservice.api.dto.RecipientDto;
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.Notification;
+import com.example.notificationservice.domain.NotificationStatus;
+import com.example.notificationservice.repository.NotificationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts of {@link NotificationOrchestrator#accept}: the rows of a request go out as one
+ * batched INSERT, with no SELECT before or after it.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    // Keep background pollers from issuing queries while statements are counted
+    "notification.scheduling.poll-interval-ms=3600000",
+    "notification.idempotency.cleanup-interval-ms=3600000"
+})
+class NotificationOrchestratorTest {
+
+    @Autowired
+    private NotificationOrchestrator orchestrator;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /** Dispatch is out of scope; it would also call the (unreachable) providers. */
+    @MockBean
+    private InProcessNotificationSender inProcessSender;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Compiles and caches the template, so the measured call only does the accept's own work
+        orchestrator.accept(request("warm-up", "+15550000000"));
+        statistics.clear();
+    }
+
+    @Test
+    void acceptWritesAllRecipientsAsOneBatch() {
+        List<Notification> created = orchestrator.accept(request("Ada", "+15550000001", "+15550000002", "+15550000003"));
+
+        assertThat(created).hasSize(3);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        // Batched: one prepared INSERT for all rows; unbatched inserts would prepare one each
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+
+        List<Notification> stored = notificationRepository.findAllById(created.stream().map(Notification::getId).toList());
+        assertThat(stored).hasSize(3).allMatch(n -> n.getStatus() == NotificationStatus.ACCEPTED);
+    }
+
+    private static NotificationRequest request(String userName, String... phoneNumbers) {
+        NotificationRequest request = new NotificationRequest();
+        request.setTemplateId("welcome-sms");
+        request.setChannels(List.of(ChannelType.SMS));
+        request.setRecipients(Arrays.stream(phoneNumbers).map(number -> {
+            RecipientDto recipient = new RecipientDto();
+            recipient.setChannel(ChannelType.SMS);
+            recipient.setAddress(number);
+            return recipient;
+        }).toList());
+        request.setVariables(Map.of("userName", userName, "code", "123456"));
+        return request;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.notificationservice.service.dispatch;
+
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.NotificationPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityDispatcherTest {
+
+    /** One worker, one send in flight per channel, two queued sends per lane. */
+    private final PriorityDispatcher dispatcher = new PriorityDispatcher(new SimpleMeterRegistry(), 1, 1, 2, 8, 3, 1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final List<String> abandoned = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    void producerWaitsWhileTheLaneIsFull() throws Exception {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        submit("first", first);
+        waitFor(() -> started.contains("first"));
+        submit("second", new CompletableFuture<>());
+        submit("third", new CompletableFuture<>());
+
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try {
+                dispatcher.awaitCapacity(NotificationPriority.LOW);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiting).isNotDone();
+
+        // The channel frees up, "second" starts and the lane drops below capacity
+        first.complete(null);
+        waiting.get(5, TimeUnit.SECONDS);
+        // The lane frees up as "second" is taken, just before the worker starts it
+        waitFor(() -> started.size() == 2);
+        assertThat(started).containsExactly("first", "second");
+    }
+
+    @Test
+    void queuedSendsAreHandedBackOnStop() throws Exception {
+        submit("running", new CompletableFuture<>());
+        waitFor(() -> started.contains("running"));
+        submit("queued", new CompletableFuture<>());
+
+        dispatcher.stop();
+        submit("late", new CompletableFuture<>());
+
+        assertThat(started).containsExactly("running");
+        assertThat(abandoned).containsExactly("queued", "late");
+    }
+
+    private void submit(String name, CompletableFuture<Void> done) {
+        dispatcher.submit(NotificationPriority.LOW, ChannelType.SMS, () -> {
+            started.add(name);
+            return done;
+        }, () -> abandoned.add(name));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.notificationservice.service.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    /** 10 ms ticks, 4 slots, 2 levels: level 0 spans 40 ms, level 1 spans 160 ms, beyond that overflows. */
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel("test-wheel", 10, 4, 2, Runnable::run);
+    private final List<Long> fired = new CopyOnWriteArrayList<>();
+    private final Map<Long, Long> firedAfterMs = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void timersOnEveryLevelCascadeDownAndFireInDeadlineOrder() throws InterruptedException {
+        // Level 0, level 1, and past the top level's horizon
+        List<Long> delays = List.of(400L, 25L, 120L, 5L, 250L, 60L);
+        long start = System.nanoTime();
+        for (long delay : delays) {
+            schedule(start, delay);
+        }
+        assertThat(wheel.size()).isEqualTo(delays.size());
+
+        waitFor(() -> fired.size() == delays.size());
+
+        assertThat(fired).containsExactly(5L, 25L, 60L, 120L, 250L, 400L);
+        firedAfterMs.forEach((delay, elapsed) ->
+            assertThat(elapsed).as("timer of %d ms", delay).isBetween(delay, delay + 200));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timersShorterThanATickDoNotFireEarly() throws InterruptedException {
+        HierarchicalTimingWheel coarse = new HierarchicalTimingWheel("coarse-wheel", 200, 8, 1, Runnable::run);
+        try {
+            long start = System.nanoTime();
+            Map<Long, Long> elapsed = new ConcurrentHashMap<>();
+            for (long delay = 10; delay < 200; delay += 20) {
+                long delayMs = delay;
+                coarse.schedule(delayMs, TimeUnit.MILLISECONDS,
+                    () -> elapsed.put(delayMs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            }
+
+            waitFor(() -> elapsed.size() == 10);
+            elapsed.forEach((delay, after) -> assertThat(after).as("timer of %d ms", delay).isGreaterThanOrEqualTo(delay));
+        } finally {
+            coarse.stop();
+        }
+    }
+
+    private void schedule(long start, long delayMs) {
+        wheel.schedule(delayMs, TimeUnit.MILLISECONDS, () -> {
+            firedAfterMs.put(delayMs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            fired.add(delayMs);
+        });
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
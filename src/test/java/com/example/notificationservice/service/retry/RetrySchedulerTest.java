@@ -0,0 +1,41 @@
+package com.example.notificationservice.service.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetrySchedulerTest {
+
+    private final RetryScheduler scheduler = new RetryScheduler(3, 1000, 8000);
+
+    @Test
+    void backoffDoublesWithEqualJitterUpToTheCap() {
+        long[] delays = { 1000, 2000, 4000, 8000, 8000, 8000 };
+        for (int failures = 1; failures <= delays.length; failures++) {
+            long delay = delays[failures - 1];
+            for (int i = 0; i < 1000; i++) {
+                assertThat(scheduler.backoffMs(failures)).as("backoff after %d failures", failures)
+                    .isBetween(delay / 2, delay);
+            }
+        }
+    }
+
+    @Test
+    void retryAfterLongerThanTheBackoffWins() {
+        Instant before = Instant.now();
+        Instant next = scheduler.nextAttempt(1, Duration.ofMinutes(1));
+        assertThat(next).isBetween(before.plusSeconds(60), Instant.now().plusSeconds(60));
+
+        Instant backoff = scheduler.nextAttempt(1, Duration.ofMillis(1));
+        assertThat(backoff).isBetween(before.plusMillis(500), Instant.now().plusMillis(1000));
+    }
+
+    @Test
+    void retriesStopAtTheLimit() {
+        assertThat(scheduler.shouldRetry(2)).isTrue();
+        assertThat(scheduler.shouldRetry(3)).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.notificationservice.service.scheduling;
+
+import com.example.notificationservice.api.dto.NotificationRequest;
+import com.example.notificationservice.api.dto.RecipientDto;
+import com.example.notificationservice.domain.ChannelType;
+import com.example.notificationservice.domain.Notification;
+import com.example.notificationservice.domain.NotificationStatus;
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.service.InProcessNotificationSender;
+import com.example.notificationservice.service.NotificationOrchestrator;
+import com.example.notificationservice.service.status.StatusWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "notification.scheduling.poll-interval-ms=3600000")
+class ScheduledDeliveryEngineTest {
+
+    @Autowired
+    private ScheduledDeliveryEngine engine;
+
+    @Autowired
+    private NotificationOrchestrator orchestrator;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private StatusWriteBehind statusWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Keeps the accepted notification from being sent; the test drives its retry by hand. */
+    @MockBean
+    private InProcessNotificationSender inProcessSender;
+
+    @Test
+    void retryIsStoredOnTheRowAndReleasedAfterARestart() throws Exception {
+        UUID id = orchestrator.accept(request()).get(0).getId();
+        Instant dueAt = Instant.now().plus(Duration.ofHours(1)).truncatedTo(ChronoUnit.MILLIS);
+
+        assertThat(engine.retry(id, dueAt, "provider timeout", 1).get(5, TimeUnit.SECONDS)).isTrue();
+
+        Notification stored = notificationRepository.findById(id).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(NotificationStatus.SCHEDULED);
+        assertThat(stored.getDueAt()).isEqualTo(dueAt);
+        assertThat(stored.getRetryCount()).isEqualTo(1);
+        assertThat(stored.getErrorMessage()).isEqualTo("provider timeout");
+
+        // The instance goes away with the retry armed only in its wheel and comes back after it fell due
+        jdbcTemplate.update("update notifications set due_at = ? where id = ?",
+            Timestamp.from(Instant.now().minusSeconds(1)), id);
+        NotificationOrchestrator restartedOrchestrator = mock(NotificationOrchestrator.class);
+        ScheduledDeliveryEngine restarted = new ScheduledDeliveryEngine(notificationRepository, restartedOrchestrator,
+            statusWriter, 60000, 100, 100, 5000, 60000, 10, 64, new SimpleMeterRegistry());
+        try {
+            restarted.loadWindow();
+            verify(restartedOrchestrator, timeout(5000)).releaseScheduled(
+                argThat((Collection<UUID> ids) -> ids.contains(id)));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private static NotificationRequest request() {
+        RecipientDto recipient = new RecipientDto();
+        recipient.setChannel(ChannelType.SMS);
+        recipient.setAddress("+15550000100");
+        NotificationRequest request = new NotificationRequest();
+        request.setTemplateId("welcome-sms");
+        request.setChannels(List.of(ChannelType.SMS));
+        request.setRecipients(List.of(recipient));
+        request.setVariables(Map.of("userName", "Ada", "code", "123456"));
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.notificationservice.service.status;
+
+import com.example.notificationservice.repository.NotificationRepository;
+import com.example.notificationservice.repository.StatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatusWriteBehindTest {
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final AtomicBoolean databaseUp = new AtomicBoolean();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<StatusUpdate> written = new ArrayList<>();
+    private StatusWriteBehind writer;
+
+    private StatusWriteBehind writer(int capacity) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(repository.applyStatusUpdates(any())).thenAnswer(invocation -> {
+            attempts.incrementAndGet();
+            if (!databaseUp.get()) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            Collection<StatusUpdate> updates = invocation.getArgument(0);
+            synchronized (written) {
+                written.addAll(updates);
+            }
+            return List.copyOf(updates);
+        });
+        NotificationStatusCache cache = new NotificationStatusCache(repository, new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(5), Duration.ofSeconds(3));
+        writer = new StatusWriteBehind(repository, cache, transactionManager, new SimpleMeterRegistry(),
+            capacity, 100, 5, 20, 40);
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        databaseUp.set(true);
+        writer.stop();
+    }
+
+    @Test
+    void failedFlushIsRetriedUntilTheUpdateLands() throws Exception {
+        StatusWriteBehind writer = writer(100);
+        StatusUpdate sent = StatusUpdate.sent(UUID.randomUUID(), "ext-1", 0);
+
+        CompletableFuture<Boolean> done = writer.submit(sent);
+        waitFor(() -> attempts.get() >= 4);
+        assertThat(done).isNotDone();
+
+        databaseUp.set(true);
+        assertThat(done.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(written).containsExactly(sent);
+    }
+
+    @Test
+    void submittersWaitWhileTheFlushIsFailing() throws Exception {
+        StatusWriteBehind writer = writer(1);
+        CompletableFuture<Boolean> first = writer.submit(StatusUpdate.sent(UUID.randomUUID(), "ext-1", 0));
+        waitFor(() -> attempts.get() >= 2);
+
+        // The queue is full and the flusher is failing: the second submit must block, not write around it
+        CompletableFuture<CompletableFuture<Boolean>> second = CompletableFuture.supplyAsync(
+            () -> writer.submit(StatusUpdate.sent(UUID.randomUUID(), "ext-2", 0)));
+        Thread.sleep(200);
+        assertThat(second).isNotDone();
+
+        databaseUp.set(true);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(written).hasSize(2);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}